@@ -0,0 +1,64 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.mapper.ArchivedSessionMapper;
+import com.openclassrooms.starterjwt.models.ArchivedSession;
+import com.openclassrooms.starterjwt.pagination.KeysetPage;
+import com.openclassrooms.starterjwt.services.SessionArchiveService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.OffsetDateTime;
+import java.util.Date;
+
+/**
+ * Read-only access to the sessions moved to the archive.
+ */
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = SessionController.NEXT_CURSOR_HEADER)
+@RestController
+@RequestMapping("/api/archive/session")
+public class ArchivedSessionController {
+    private final ArchivedSessionMapper archivedSessionMapper;
+    private final SessionArchiveService sessionArchiveService;
+
+
+    public ArchivedSessionController(SessionArchiveService sessionArchiveService,
+                                     ArchivedSessionMapper archivedSessionMapper) {
+        this.archivedSessionMapper = archivedSessionMapper;
+        this.sessionArchiveService = sessionArchiveService;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+        try {
+            ArchivedSession session = this.sessionArchiveService.getById(Long.valueOf(id));
+
+            if (session == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            return ResponseEntity.ok().body(this.archivedSessionMapper.toDto(session));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping()
+    public ResponseEntity<?> findAll(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                     @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+                                     @RequestParam(value = "cursor", required = false) String cursor,
+                                     @RequestParam(value = "size", required = false) Integer size) {
+        KeysetPage<ArchivedSession> page = this.sessionArchiveService.findPage(
+                from == null ? null : Date.from(from.toInstant()),
+                to == null ? null : Date.from(to.toInstant()),
+                cursor, size);
+        var participantIds = this.sessionArchiveService.findParticipantIds(
+                page.items().stream().map(ArchivedSession::getId).toList());
+
+        var response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(SessionController.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(this.archivedSessionMapper.toDto(page.items(), participantIds));
+    }
+}
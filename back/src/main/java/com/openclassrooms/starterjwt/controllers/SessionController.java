@@ -1,30 +1,97 @@
 package com.openclassrooms.starterjwt.controllers;
 
 
+import com.openclassrooms.starterjwt.dto.EnrollmentResultDto;
+import com.openclassrooms.starterjwt.dto.ImportResultDto;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionPatchDto;
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.PreconditionFailedException;
+import com.openclassrooms.starterjwt.exception.UnknownReferenceException;
+import com.openclassrooms.starterjwt.io.NdjsonReader;
+import com.openclassrooms.starterjwt.io.NdjsonWriter;
+import com.openclassrooms.starterjwt.io.RecordWriter;
+import com.openclassrooms.starterjwt.io.SessionCsvReader;
+import com.openclassrooms.starterjwt.io.SessionCsvWriter;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.pagination.KeysetPage;
+import com.openclassrooms.starterjwt.payload.response.MessageResponse;
+import com.openclassrooms.starterjwt.repository.SessionFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.services.SessionExportService;
+import com.openclassrooms.starterjwt.services.SessionImportService;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistService;
+import com.openclassrooms.starterjwt.snapshot.SessionListSnapshot;
+import com.openclassrooms.starterjwt.snapshot.SessionListSnapshotCache;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.StreamSupport;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = SessionController.NEXT_CURSOR_HEADER)
 @RestController
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final SessionImportService sessionImportService;
+    private final SessionExportService sessionExportService;
+    private final SessionListSnapshotCache sessionListSnapshotCache;
+    private final WaitlistService waitlistService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionImportService sessionImportService,
+                             SessionExportService sessionExportService,
+                             SessionListSnapshotCache sessionListSnapshotCache,
+                             WaitlistService waitlistService,
+                             SessionMapper sessionMapper,
+                             ObjectMapper objectMapper,
+                             Validator validator) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.sessionImportService = sessionImportService;
+        this.sessionExportService = sessionExportService;
+        this.sessionListSnapshotCache = sessionListSnapshotCache;
+        this.waitlistService = waitlistService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
     @GetMapping("/{id}")
@@ -36,37 +103,173 @@ public class SessionController {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            var participantIds = this.sessionService.findParticipantIds(List.of(session.getId()));
+            return ResponseEntity.ok()
+                    .eTag(versionETag(session))
+                    .body(this.sessionMapper.toDto(session, participantIds));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Serves the page from {@link SessionListSnapshotCache}: as long as the sessions do not change, a poll costs
+     * the version query and the write of bytes encoded once, gzipped when the client accepts it.
+     */
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Session> sessions = this.sessionService.findAll();
+    public ResponseEntity<?> findAll(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                     @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+                                     @RequestParam(value = "teacherId", required = false) Long teacherId,
+                                     @RequestParam(value = "cursor", required = false) String cursor,
+                                     @RequestParam(value = "size", required = false) Integer size,
+                                     WebRequest request) {
+        String version = this.sessionService.getVersion().toETag();
+        boolean gzip = acceptsGzip(request);
+        // answer a poll that already has the current data before loading anything
+        if (request.checkNotModified(gzip ? gzipETag(version) : version)) {
+            return null;
+        }
+
+        var filter = new SessionFilter(
+                from == null ? null : Date.from(from.toInstant()),
+                to == null ? null : Date.from(to.toInstant()),
+                teacherId);
+        SessionListSnapshot snapshot = this.sessionListSnapshotCache.get(version, filter, cursor, size);
+
+        var response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (snapshot.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, snapshot.nextCursor());
+        }
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzipped());
+        }
+        return response.body(snapshot.json());
+    }
+
+    /**
+     * Lists sessions with their number of booked seats, read from the denormalized count of each session.
+     */
+    @GetMapping("summaries")
+    public ResponseEntity<?> findSummaries(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                           @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+                                           @RequestParam(value = "teacherId", required = false) Long teacherId,
+                                           @RequestParam(value = "cursor", required = false) String cursor,
+                                           @RequestParam(value = "size", required = false) Integer size,
+                                           WebRequest request) {
+        if (request.checkNotModified(this.sessionService.getVersion().toETag())) {
+            return null;
+        }
+
+        var filter = new SessionFilter(
+                from == null ? null : Date.from(from.toInstant()),
+                to == null ? null : Date.from(to.toInstant()),
+                teacherId);
+        KeysetPage<SessionSummaryDto> page = this.sessionService.findSummaryPage(filter, cursor, size);
 
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+        var response = ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate());
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    @GetMapping("search")
+    public ResponseEntity<?> search(@RequestParam("q") String query,
+                                    @RequestParam(value = "size", required = false) Integer size) {
+        List<Session> sessions = this.sessionService.search(query, size);
+        var participantIds = this.sessionService.findParticipantIds(
+                sessions.stream().map(Session::getId).toList());
+
+        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions, participantIds));
     }
 
     @PostMapping()
     public ResponseEntity<?> create(@Valid @RequestBody SessionDto sessionDto) {
         log.info(sessionDto);
 
-        Session session = this.sessionService.create(this.sessionMapper.toEntity(sessionDto));
+        Session session;
+        try {
+            session = this.sessionService.create(this.sessionMapper.toEntity(sessionDto));
+        } catch (UnknownReferenceException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        }
 
         log.info(session);
         return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
     }
 
+    @PostMapping(value = "batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createAll(@RequestBody List<SessionDto> sessionDtos) {
+        return importSessions(sessionDtos.iterator());
+    }
+
+    @PostMapping(value = "batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> uploadNdjson(InputStream body) {
+        var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return importSessions(new NdjsonReader<>(reader, this.objectMapper.readerFor(SessionDto.class)));
+    }
+
+    @PostMapping(value = "batch", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<?> uploadCsv(InputStream body) {
+        var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        return importSessions(new SessionCsvReader(reader));
+    }
+
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportNdjson() {
+        return exportSessions(MediaType.APPLICATION_NDJSON,
+                writer -> new NdjsonWriter<>(writer, this.objectMapper.writerFor(SessionDto.class)));
+    }
+
+    @GetMapping(value = "export", produces = TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCsv() {
+        return exportSessions(MediaType.parseMediaType(TEXT_CSV_VALUE), SessionCsvWriter::new);
+    }
+
+    /**
+     * With an {@code If-Match} header, the session is only replaced if it has not changed since the client read it.
+     */
     @PutMapping("{id}")
-    public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody SessionDto sessionDto) {
+    public ResponseEntity<?> update(@PathVariable("id") String id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                    @Valid @RequestBody SessionDto sessionDto) {
+        try {
+            Session session = this.sessionService.update(Long.parseLong(id), this.sessionMapper.toEntity(sessionDto),
+                    ifMatchVersion(ifMatch));
+
+            return ResponseEntity.ok()
+                    .eTag(versionETag(session))
+                    .body(this.sessionMapper.toDto(session));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (UnknownReferenceException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+    }
+
+    @PatchMapping("{id}")
+    public ResponseEntity<?> patch(@PathVariable("id") String id,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                   @Valid @RequestBody SessionPatchDto patchDto) {
         try {
-            Session session = this.sessionService.update(Long.parseLong(id), this.sessionMapper.toEntity(sessionDto));
+            Session session = this.sessionService.patch(Long.parseLong(id), this.sessionMapper.toPatch(patchDto),
+                    ifMatchVersion(ifMatch));
+            Map<Long, List<Long>> participantIds = this.sessionService.findParticipantIds(List.of(session.getId()));
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            return ResponseEntity.ok()
+                    .eTag(versionETag(session))
+                    .body(this.sessionMapper.toDto(session, participantIds));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
+        } catch (UnknownReferenceException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: " + e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
         }
     }
 
@@ -107,4 +310,133 @@ public class SessionController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Puts the user on the waitlist of the session, they will be given the first seat that frees up.
+     */
+    @PostMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> joinWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            this.waitlistService.join(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            this.waitlistService.leave(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("{id}/waitlist")
+    public ResponseEntity<?> findWaitlist(@PathVariable("id") String id) {
+        try {
+            return ResponseEntity.ok().body(this.waitlistService.findUserIds(Long.parseLong(id)));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("{id}/participants")
+    public ResponseEntity<?> enroll(@PathVariable("id") String id, @RequestBody List<Long> userIds) {
+        try {
+            var report = this.sessionService.enroll(Long.parseLong(id), userIds);
+
+            return ResponseEntity.ok().body(report.entrySet().stream()
+                    .map(result -> new EnrollmentResultDto(result.getKey(), result.getValue()))
+                    .toList());
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    private ResponseEntity<?> importSessions(Iterator<SessionDto> sessionDtos) {
+        var sessions = StreamSupport.stream(Spliterators.spliteratorUnknownSize(sessionDtos, Spliterator.ORDERED), false)
+                .map(this::validated)
+                .map(this.sessionMapper::toUnresolvedEntity)
+                .iterator();
+
+        var result = this.sessionImportService.importSessions(sessions);
+        return ResponseEntity.ok().body(new ImportResultDto(result.imported(), result.conflicts()));
+    }
+
+    /**
+     * Streams the sessions straight to the response: every chunk read from the database is written and flushed
+     * before the next one is fetched.
+     */
+    private ResponseEntity<StreamingResponseBody> exportSessions(MediaType mediaType,
+                                                                 Function<Writer, RecordWriter<SessionDto>> writerFactory) {
+        StreamingResponseBody body = outputStream -> {
+            var records = writerFactory.apply(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)));
+            records.flush();
+            this.sessionExportService.exportSessions((sessions, participantIds) -> {
+                this.sessionMapper.toDto(sessions, participantIds).forEach(records::write);
+                records.flush();
+            });
+        };
+        return ResponseEntity.ok().contentType(mediaType).body(body);
+    }
+
+    private static boolean acceptsGzip(WebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The gzipped body is a different representation, so it gets its own strong entity tag.
+     */
+    private static String gzipETag(String etag) {
+        return etag.substring(0, etag.length() - 1) + "-gzip\"";
+    }
+
+    private static String versionETag(Session session) {
+        return "\"" + session.getVersion() + "\"";
+    }
+
+    /**
+     * Reads the version a client expects from its {@code If-Match} header.
+     *
+     * @return {@code null} when any version will do
+     * @throws PreconditionFailedException when the header holds no tag of a session version
+     */
+    private static Long ifMatchVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String etag = ifMatch.trim();
+        // If-Match uses the strong comparison, a weak tag never matches
+        if (etag.length() < 3 || !etag.startsWith("\"") || !etag.endsWith("\"")) {
+            throw new PreconditionFailedException();
+        }
+        try {
+            return Long.valueOf(etag.substring(1, etag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException();
+        }
+    }
+
+    private SessionDto validated(SessionDto sessionDto) {
+        if (!this.validator.validate(sessionDto).isEmpty()) {
+            throw new BadRequestException();
+        }
+        return sessionDto;
+    }
 }
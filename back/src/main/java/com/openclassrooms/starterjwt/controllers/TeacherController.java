@@ -2,9 +2,19 @@ package com.openclassrooms.starterjwt.controllers;
 
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.services.TeacherSchedule;
+import com.openclassrooms.starterjwt.services.TeacherScheduleService;
 import com.openclassrooms.starterjwt.services.TeacherService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -13,12 +23,15 @@ import java.util.List;
 public class TeacherController {
     private final TeacherMapper teacherMapper;
     private final TeacherService teacherService;
+    private final TeacherScheduleService teacherScheduleService;
 
 
     public TeacherController(TeacherService teacherService,
+                             TeacherScheduleService teacherScheduleService,
                              TeacherMapper teacherMapper) {
         this.teacherMapper = teacherMapper;
         this.teacherService = teacherService;
+        this.teacherScheduleService = teacherScheduleService;
     }
 
     @GetMapping("/{id}")
@@ -36,10 +49,42 @@ public class TeacherController {
         }
     }
 
+    /**
+     * Returns the sessions the teacher gives from {@code from}, now by default, to the end of the {@code weeks}-th
+     * week, with the number of sessions and attendees of each week.
+     */
+    @GetMapping("/{id}/schedule")
+    public ResponseEntity<?> findSchedule(@PathVariable("id") String id,
+                                          @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+                                          @RequestParam(value = "weeks", required = false) Integer weeks,
+                                          @RequestParam(value = "zone", defaultValue = "UTC") String zone) {
+        try {
+            Teacher teacher = this.teacherService.findById(Long.valueOf(id));
+
+            if (teacher == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            TeacherSchedule schedule = this.teacherScheduleService.getSchedule(teacher.getId(),
+                    from == null ? Instant.now() : from.toInstant(), weeks, ZoneId.of(zone));
+
+            return ResponseEntity.ok().body(this.teacherMapper.toScheduleDto(teacher, schedule));
+        } catch (NumberFormatException | DateTimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping()
-    public ResponseEntity<?> findAll() {
+    public ResponseEntity<?> findAll(WebRequest request) {
+        // answer a poll that already has the current data before loading anything
+        if (request.checkNotModified(this.teacherService.getVersion().toETag())) {
+            return null;
+        }
+
         List<Teacher> teachers = this.teacherService.findAll();
 
-        return ResponseEntity.ok().body(this.teacherMapper.toDto(teachers));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(this.teacherMapper.toDto(teachers));
     }
 }
@@ -0,0 +1,100 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves read-only transactions from replicas, enabled by listing their JDBC urls in
+ * {@code application.datasource.replica.urls}, comma separated. Replicas are reached with the credentials of
+ * {@code spring.datasource}.
+ */
+@Configuration
+@ConditionalOnProperty("application.datasource.replica.urls")
+public class ReadReplicaConfig {
+
+    @Bean
+    public ReplicaMonitor replicaMonitor(DataSourceProperties properties,
+                                         @Value("${application.datasource.replica.urls}") List<String> urls,
+                                         @Value("${application.datasource.replica.max-lag-ms:5000}") long maxLagMs) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            replicas.put("replica-" + i, properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i).trim())
+                    .build());
+        }
+        DataSource primary = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        return new ReplicaMonitor(primary, replicas, Duration.ofMillis(maxLagMs));
+    }
+
+    @Bean
+    public ReplicaStickiness replicaStickiness(@Value("${application.datasource.replica.sticky-ms:10000}") long stickyMs) {
+        return new ReplicaStickiness(Duration.ofMillis(stickyMs));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaMonitor replicaMonitor, ReplicaStickiness replicaStickiness) {
+        var routing = new ReadWriteRoutingDataSource(replicaMonitor, replicaStickiness);
+        // the monitor only borrows connections for its checks, the pools are the ones the routing uses
+        Map<Object, Object> targets = replicaMonitor.targetDataSources();
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(targets.get(ReadWriteRoutingDataSource.PRIMARY));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * The adapter Spring Boot would create, with a dialect keeping the results of replicas out of the caches.
+     */
+    @Bean
+    public JpaVendorAdapter jpaVendorAdapter(JpaProperties properties) {
+        var jpaDialect = new ReplicaAwareJpaDialect();
+        var adapter = new HibernateJpaVendorAdapter() {
+            @Override
+            public HibernateJpaDialect getJpaDialect() {
+                return jpaDialect;
+            }
+        };
+        adapter.setShowSql(properties.isShowSql());
+        if (properties.getDatabase() != null) {
+            adapter.setDatabase(properties.getDatabase());
+        }
+        if (properties.getDatabasePlatform() != null) {
+            adapter.setDatabasePlatform(properties.getDatabasePlatform());
+        }
+        adapter.setGenerateDdl(properties.isGenerateDdl());
+        return adapter;
+    }
+
+    /**
+     * Hibernate holds on to its connection until the entity manager closes, which with open-in-view is the end of
+     * the request: each transaction must take its own connection to be routed on its own.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
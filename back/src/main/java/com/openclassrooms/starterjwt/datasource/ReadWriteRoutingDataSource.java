@@ -0,0 +1,74 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the connections of {@code @Transactional(readOnly = true)} work to the available replicas in turn, and
+ * everything else to the primary. A user who commits a read-write transaction is kept on the primary for the
+ * stickiness window. Read-only transactions labelled {@link #PRIMARY}, the reads whose results get cached, are
+ * never sent to a replica. The decision needs the transaction to be started, so this data source must be wrapped
+ * in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> primaryReads = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+    private final ReplicaMonitor replicaMonitor;
+
+    private final ReplicaStickiness stickiness;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(ReplicaMonitor replicaMonitor, ReplicaStickiness stickiness) {
+        this.replicaMonitor = replicaMonitor;
+        this.stickiness = stickiness;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String username = ReplicaStickiness.currentUsername();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (username != null && TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        stickiness.markWrite(username);
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+        if (primaryReads.get() || this.stickiness.isSticky(username)) {
+            return PRIMARY;
+        }
+
+        List<String> replicas = this.replicaMonitor.availableReplicas();
+        if (replicas.isEmpty()) {
+            return PRIMARY;
+        }
+        return replicas.get(Math.floorMod(this.next.getAndIncrement(), replicas.size()));
+    }
+
+    /**
+     * Sends the read-only transactions of the current thread to the primary, or lets them go to the replicas
+     * again, as {@link ReplicaAwareJpaDialect} does for the transactions labelled {@link #PRIMARY}.
+     *
+     * @return the previous setting, to be restored once the transaction is over
+     */
+    public static boolean readFromPrimary(boolean enabled) {
+        boolean previous = primaryReads.get();
+        if (enabled) {
+            primaryReads.set(Boolean.TRUE);
+        } else {
+            primaryReads.remove();
+        }
+        return previous;
+    }
+}
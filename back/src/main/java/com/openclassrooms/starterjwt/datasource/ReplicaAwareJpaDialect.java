@@ -0,0 +1,56 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps what a replica returns out of the caches, since it may be up to {@code max-lag-ms} behind: a read-only
+ * transaction labelled {@link ReadWriteRoutingDataSource#PRIMARY} is served by the primary, and any other
+ * read-only transaction may use the second-level and query caches but never fills them.
+ */
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        boolean primaryReads = definition.isReadOnly() && definition instanceof TransactionAttribute attribute
+                && attribute.getLabels().contains(ReadWriteRoutingDataSource.PRIMARY);
+        if (definition.isReadOnly() && !primaryReads) {
+            session.setCacheMode(CacheMode.GET);
+        }
+        return new RoutedTransactionData(transactionData, session, cacheMode,
+                ReadWriteRoutingDataSource.readFromPrimary(primaryReads));
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof RoutedTransactionData routed) {
+            // with open-in-view the session outlives the transaction
+            routed.session().setCacheMode(routed.cacheMode());
+            ReadWriteRoutingDataSource.readFromPrimary(routed.primaryReads());
+            super.cleanupTransaction(routed.transactionData());
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    /**
+     * @param cacheMode    the cache mode of the session before the transaction
+     * @param primaryReads whether the enclosing transaction read from the primary
+     */
+    private record RoutedTransactionData(Object transactionData, Session session, CacheMode cacheMode,
+                                         boolean primaryReads) {
+    }
+}
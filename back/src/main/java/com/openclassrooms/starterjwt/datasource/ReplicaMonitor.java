@@ -0,0 +1,139 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tells which replicas may serve reads. Every {@code check-interval-ms} each replica must answer, and be no
+ * more than {@code max-lag-ms} behind the primary.
+ * <p>
+ * The lag is read from a heartbeat: every {@code heartbeat-interval-ms} the primary stamps the REPLICA_HEARTBEAT
+ * row with its own clock, and a replica is behind by the age of the stamp it holds, as seen from that clock.
+ * Replicas apply the changes of the primary in order, so holding a stamp means holding every change committed
+ * before it, whatever the table, and the stamp keeps moving while the application is idle. A replica in step
+ * shows a lag of at most one heartbeat interval.
+ */
+@Log4j2
+public class ReplicaMonitor {
+    private static final String BEAT = "update REPLICA_HEARTBEAT set beat = current_timestamp(3) where id = 1";
+
+    private static final String FIRST_BEAT = "insert into REPLICA_HEARTBEAT (id, beat) values (1, current_timestamp(3))";
+
+    private static final String READ_BEAT = "select beat from REPLICA_HEARTBEAT where id = 1";
+
+    private static final String READ_CLOCK = "select current_timestamp(3)";
+
+    private final DataSource primary;
+
+    private final Map<String, DataSource> replicas;
+
+    private final Duration maxLag;
+
+    private volatile List<String> availableReplicas = List.of();
+
+    public ReplicaMonitor(DataSource primary, Map<String, DataSource> replicas, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * @return the primary under {@link ReadWriteRoutingDataSource#PRIMARY} and the replicas under their keys
+     */
+    public Map<Object, Object> targetDataSources() {
+        Map<Object, Object> targets = new LinkedHashMap<>(this.replicas);
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, this.primary);
+        return targets;
+    }
+
+    /**
+     * @return the keys of the replicas found healthy and in step by the last check, none before the first one
+     */
+    public List<String> availableReplicas() {
+        return this.availableReplicas;
+    }
+
+    /**
+     * Stamps the heartbeat row on the primary. Every instance of the application beats, which only makes the
+     * stamp more frequent.
+     */
+    @Scheduled(fixedRateString = "${application.datasource.replica.heartbeat-interval-ms:1000}")
+    public void beat() {
+        try (Connection connection = this.primary.getConnection();
+             Statement statement = connection.createStatement()) {
+            if (statement.executeUpdate(BEAT) == 0) {
+                statement.executeUpdate(FIRST_BEAT);
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to write the replication heartbeat on the primary: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.datasource.replica.check-interval-ms:5000}")
+    public void check() {
+        Timestamp primaryClock;
+        try {
+            primaryClock = readTimestamp(this.primary, READ_CLOCK);
+        } catch (SQLException e) {
+            // without the clock of the primary the lag of the replicas is unknown
+            log.warn("Failed to read the clock of the primary", e);
+            this.availableReplicas = List.of();
+            return;
+        }
+
+        List<String> available = new ArrayList<>();
+        this.replicas.forEach((key, replica) -> {
+            try {
+                Duration lag = lag(primaryClock, readTimestamp(replica, READ_BEAT));
+                if (lag.compareTo(this.maxLag) <= 0) {
+                    available.add(key);
+                } else {
+                    log.warn("Replica {} is {} behind the primary, reads go to the primary", key, lag);
+                }
+            } catch (SQLException e) {
+                log.warn("Replica {} is unreachable, reads go to the primary: {}", key, e.getMessage());
+            }
+        });
+        this.availableReplicas = List.copyOf(available);
+    }
+
+    /**
+     * Closes the pools of the primary and the replicas, which are not beans of their own.
+     */
+    public void close() throws Exception {
+        for (Object dataSource : targetDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static Timestamp readTimestamp(DataSource dataSource, String query) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            return resultSet.next() ? resultSet.getTimestamp(1) : null;
+        }
+    }
+
+    private static Duration lag(Timestamp primaryClock, Timestamp replicaBeat) {
+        if (replicaBeat == null) {
+            // the replica has not even received the first beat
+            return Duration.ofMillis(Long.MAX_VALUE);
+        }
+        Duration lag = Duration.between(replicaBeat.toInstant(), primaryClock.toInstant());
+        return lag.isNegative() ? Duration.ZERO : lag;
+    }
+}
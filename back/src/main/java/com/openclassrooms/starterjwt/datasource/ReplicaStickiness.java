@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+/**
+ * Remembers the users who just committed a change, for their next reads to be served by the primary until the
+ * replicas had time to catch up: a user always reads their own writes.
+ */
+public class ReplicaStickiness {
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReplicaStickiness(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    public void markWrite(String username) {
+        if (username != null) {
+            this.recentWriters.put(username, Boolean.TRUE);
+        }
+    }
+
+    public boolean isSticky(String username) {
+        return username != null && this.recentWriters.getIfPresent(username) != null;
+    }
+
+    /**
+     * @return the name of the authenticated user of the current thread, {@code null} for background work
+     */
+    public static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+}
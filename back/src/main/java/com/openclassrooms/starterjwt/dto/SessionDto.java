@@ -1,10 +1,13 @@
 package com.openclassrooms.starterjwt.dto;
 
+import com.openclassrooms.starterjwt.models.Session;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -35,6 +38,17 @@ public class SessionDto {
 
     private List<Long> users;
 
+    @Min(1)
+    @Max(Session.MAX_DURATION)
+    private Integer duration;
+
+    @Min(1)
+    private Integer capacity;
+
+    private int participantCount;
+
+    private Long series_id;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
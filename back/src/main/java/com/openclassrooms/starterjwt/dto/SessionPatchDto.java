@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.dto;
+
+import com.openclassrooms.starterjwt.models.Session;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Fields of a session to change, a {@code null} field is left as it is. The participants are only replaced
+ * when {@code users} is given.
+ */
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionPatchDto {
+    @Size(max = 50)
+    @Pattern(regexp = ".*\\S.*")
+    private String name;
+
+    private Date date;
+
+    private Long teacher_id;
+
+    @Size(max = 2500)
+    private String description;
+
+    private List<Long> users;
+
+    @Min(1)
+    @Max(Session.MAX_DURATION)
+    private Integer duration;
+
+    @Min(1)
+    private Integer capacity;
+}
@@ -0,0 +1,76 @@
+package com.openclassrooms.starterjwt.dto;
+
+import com.openclassrooms.starterjwt.models.Session;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Set;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSeriesDto {
+    private Long id;
+
+    @NotBlank
+    @Size(max = 50)
+    private String name;
+
+    @NotNull
+    @Size(max = 2500)
+    private String description;
+
+    @NotNull
+    private Long teacher_id;
+
+    @Min(1)
+    private Integer capacity;
+
+    @Min(1)
+    @Max(Session.MAX_DURATION)
+    private Integer duration;
+
+    @NotNull
+    private LocalDate startDate;
+
+    @NotNull
+    private LocalTime startTime;
+
+    /**
+     * Time zone of {@code startTime}, UTC when not given.
+     */
+    private String zoneId;
+
+    @NotEmpty
+    private Set<DayOfWeek> daysOfWeek;
+
+    /**
+     * Number of weeks between two weeks with occurrences, 1 when not given.
+     */
+    @Min(1)
+    private Integer interval;
+
+    @NotNull
+    private LocalDate until;
+
+    private Set<LocalDate> exceptions;
+
+    private LocalDate materializedUntil;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+}
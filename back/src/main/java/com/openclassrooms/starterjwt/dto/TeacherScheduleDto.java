@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * A teacher along with the sessions they give over the coming weeks and the workload of each week.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@NoArgsConstructor
+public class TeacherScheduleDto extends TeacherDto {
+    private List<SessionSummaryDto> sessions;
+
+    private List<WeeklyWorkloadDto> weeks;
+
+    private int totalSessions;
+
+    private long totalAttendees;
+}
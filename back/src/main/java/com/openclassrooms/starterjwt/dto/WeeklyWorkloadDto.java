@@ -0,0 +1,21 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WeeklyWorkloadDto {
+    /**
+     * The Monday the week starts on.
+     */
+    private LocalDate weekStart;
+
+    private int sessions;
+
+    private long attendees;
+}
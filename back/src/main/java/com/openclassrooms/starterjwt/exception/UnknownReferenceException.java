@@ -0,0 +1,24 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Thrown when a request references entities that do not exist, listing all of them at once.
+ */
+@ResponseStatus(value= HttpStatus.BAD_REQUEST)
+public class UnknownReferenceException extends RuntimeException {
+    private final List<Long> ids;
+
+    public UnknownReferenceException(String entities, Collection<Long> ids) {
+        super("Unknown " + entities + ": " + ids);
+        this.ids = List.copyOf(ids);
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+}
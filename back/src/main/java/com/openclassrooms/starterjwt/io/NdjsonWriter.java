@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes newline delimited JSON, one record per line.
+ */
+public class NdjsonWriter<T> implements RecordWriter<T> {
+    private final Writer writer;
+    private final ObjectWriter objectWriter;
+
+    public NdjsonWriter(Writer writer, ObjectWriter objectWriter) {
+        this.writer = writer;
+        // leave flushing and closing the writer to the caller
+        this.objectWriter = objectWriter
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public void write(T record) {
+        try {
+            objectWriter.writeValue(writer, record);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.openclassrooms.starterjwt.io;
+
+/**
+ * Writes records one at a time to an underlying {@link java.io.Writer}, which is neither flushed nor closed
+ * unless asked to. I/O failures are rethrown as {@link java.io.UncheckedIOException}.
+ */
+public interface RecordWriter<T> {
+    void write(T record);
+
+    void flush();
+}
@@ -0,0 +1,130 @@
+package com.openclassrooms.starterjwt.io;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Reads sessions from RFC 4180 CSV, one record at a time. The first record is a header naming the columns,
+ * in any order: {@code name}, {@code date} (ISO-8601 with offset), {@code teacher_id}, {@code description}
+ * and the optional {@code capacity}.
+ */
+public class SessionCsvReader implements Iterator<SessionDto> {
+    private final Reader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private List<String> nextRecord;
+    private boolean endOfInput;
+
+    public SessionCsvReader(Reader reader) {
+        this.reader = reader;
+
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new BadRequestException();
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.keySet().containsAll(List.of("name", "date", "teacher_id", "description"))) {
+            throw new BadRequestException();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (nextRecord == null && !endOfInput) {
+            List<String> record = readRecord();
+            if (record == null) {
+                endOfInput = true;
+            } else if (!(record.size() == 1 && record.get(0).isBlank())) {
+                nextRecord = record;
+            }
+        }
+        return nextRecord != null;
+    }
+
+    @Override
+    public SessionDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        List<String> record = nextRecord;
+        nextRecord = null;
+        try {
+            String capacity = value(record, "capacity");
+            return SessionDto.builder()
+                    .name(required(record, "name"))
+                    .date(Date.from(OffsetDateTime.parse(required(record, "date")).toInstant()))
+                    .teacher_id(Long.valueOf(required(record, "teacher_id")))
+                    .description(required(record, "description"))
+                    .capacity(capacity == null || capacity.isBlank() ? null : Integer.valueOf(capacity))
+                    .build();
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new BadRequestException();
+        }
+    }
+
+    private String required(List<String> record, String column) {
+        String value = value(record, column);
+        if (value == null) {
+            throw new BadRequestException();
+        }
+        return value;
+    }
+
+    private String value(List<String> record, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= record.size() ? null : record.get(index);
+    }
+
+    /**
+     * @return the fields of the next record, {@code null} at the end of the input
+     */
+    private List<String> readRecord() {
+        try {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        c = reader.read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    }
+                    field.append((char) c);
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            if (quoted) {
+                throw new BadRequestException();
+            }
+            fields.add(field.toString());
+            return fields;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
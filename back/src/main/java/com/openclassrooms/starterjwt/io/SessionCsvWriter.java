@@ -0,0 +1,75 @@
+package com.openclassrooms.starterjwt.io;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Writes sessions as RFC 4180 CSV under a header, with the columns read by {@link SessionCsvReader} followed by
+ * {@code id}, {@code participant_count} and {@code users}, the participant ids separated by spaces.
+ */
+public class SessionCsvWriter implements RecordWriter<SessionDto> {
+    private static final List<String> HEADER = List.of(
+            "id", "name", "date", "teacher_id", "description", "capacity", "participant_count", "users");
+
+    private final Writer writer;
+
+    public SessionCsvWriter(Writer writer) {
+        this.writer = writer;
+        writeRecord(HEADER);
+    }
+
+    @Override
+    public void write(SessionDto session) {
+        writeRecord(Arrays.asList(
+                Objects.toString(session.getId(), ""),
+                session.getName(),
+                session.getDate() == null ? "" : session.getDate().toInstant().toString(),
+                Objects.toString(session.getTeacher_id(), ""),
+                session.getDescription(),
+                Objects.toString(session.getCapacity(), ""),
+                String.valueOf(session.getParticipantCount()),
+                session.getUsers() == null ? "" : session.getUsers().stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(" "))));
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeRecord(List<String> fields) {
+        try {
+            for (int i = 0; i < fields.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escape(fields.get(i)));
+            }
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String escape(String field) {
+        if (field == null) {
+            return "";
+        }
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.mapper;
+
+import com.openclassrooms.starterjwt.dto.ArchivedSessionDto;
+import com.openclassrooms.starterjwt.models.ArchivedSession;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Mappings;
+import org.mapstruct.Named;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Archived sessions are only ever read, hence no mapping back to the entity.
+ */
+@Component
+@Mapper(componentModel = "spring")
+public abstract class ArchivedSessionMapper {
+
+    @Mappings({
+            @Mapping(source = "teacherId", target = "teacher_id"),
+            @Mapping(source = "seriesId", target = "series_id"),
+            @Mapping(source = "userIds", target = "users"),
+    })
+    public abstract ArchivedSessionDto toDto(ArchivedSession session);
+
+    @Named("withoutUsers")
+    @Mappings({
+            @Mapping(source = "teacherId", target = "teacher_id"),
+            @Mapping(source = "seriesId", target = "series_id"),
+            @Mapping(target = "users", ignore = true),
+    })
+    protected abstract ArchivedSessionDto toDtoWithoutUsers(ArchivedSession session);
+
+    /**
+     * Maps archived sessions whose participant ids were read beforehand, so that the lazy {@code userIds}
+     * collection is never initialized.
+     */
+    public List<ArchivedSessionDto> toDto(List<ArchivedSession> sessions, Map<Long, List<Long>> participantIds) {
+        return sessions.stream()
+                .map(session -> {
+                    ArchivedSessionDto sessionDto = toDtoWithoutUsers(session);
+                    sessionDto.setUsers(participantIds.getOrDefault(session.getId(), Collections.emptyList()));
+                    return sessionDto;
+                })
+                .collect(Collectors.toList());
+    }
+}
@@ -1,23 +1,35 @@
 package com.openclassrooms.starterjwt.mapper;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionPatchDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.UnknownReferenceException;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import com.openclassrooms.starterjwt.services.UserService;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Mappings;
+import org.mapstruct.Named;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
-@Mapper(componentModel = "spring", uses = {UserService.class}, imports = {Arrays.class, Collectors.class, Session.class, User.class, Collections.class, Optional.class})
+@Mapper(componentModel = "spring", uses = {UserService.class}, imports = {Arrays.class, Collectors.class, Session.class, Teacher.class, User.class, Collections.class, Optional.class})
 public abstract class SessionMapper implements EntityMapper<SessionDto, Session> {
 
     @Autowired
@@ -27,16 +39,117 @@ public abstract class SessionMapper implements EntityMapper<SessionDto, Session>
 
     @Mappings({
             @Mapping(source = "description", target = "description"),
-            @Mapping(target = "teacher", expression = "java(sessionDto.getTeacher_id() != null ? this.teacherService.findById(sessionDto.getTeacher_id()) : null)"),
-            @Mapping(target = "users", expression = "java(Optional.ofNullable(sessionDto.getUsers()).orElseGet(Collections::emptyList).stream().map(user_id -> { User user = this.userService.findById(user_id); if (user != null) { return user; } return null; }).collect(Collectors.toList()))"),
+            @Mapping(target = "teacher", expression = "java(resolveTeacher(sessionDto.getTeacher_id()))"),
+            @Mapping(target = "participantCount", ignore = true),
+            @Mapping(target = "users", expression = "java(resolveUsers(sessionDto.getUsers()))"),
+            @Mapping(target = "version", ignore = true),
+            @Mapping(target = "series", ignore = true),
     })
     public abstract Session toEntity(SessionDto sessionDto);
 
+    /**
+     * Maps the fields to change of a session. The fields left out of the patch stay {@code null}, and so do
+     * the participants unless the patch lists them.
+     */
+    @Mappings({
+            @Mapping(target = "id", ignore = true),
+            @Mapping(target = "teacher", expression = "java(resolveTeacher(patchDto.getTeacher_id()))"),
+            @Mapping(target = "users", expression = "java(patchDto.getUsers() != null ? resolveUsers(patchDto.getUsers()) : null)"),
+            @Mapping(target = "participantCount", ignore = true),
+            @Mapping(target = "version", ignore = true),
+            @Mapping(target = "series", ignore = true),
+            @Mapping(target = "createdAt", ignore = true),
+            @Mapping(target = "updatedAt", ignore = true),
+    })
+    public abstract Session toPatch(SessionPatchDto patchDto);
+
+    /**
+     * @throws UnknownReferenceException when there is no such teacher
+     */
+    protected Teacher resolveTeacher(Long teacherId) {
+        if (teacherId == null) {
+            return null;
+        }
+
+        Teacher teacher = this.teacherService.findById(teacherId);
+        if (teacher == null) {
+            throw new UnknownReferenceException("teacher", List.of(teacherId));
+        }
+        return teacher;
+    }
+
+    /**
+     * Loads all the participants with a single query, whatever their number.
+     *
+     * @throws UnknownReferenceException listing every id that matches no user
+     */
+    protected List<User> resolveUsers(List<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (userIds.stream().anyMatch(Objects::isNull)) {
+            throw new BadRequestException();
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(userIds);
+        Map<Long, User> users = this.userService.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<Long> unknownIds = ids.stream()
+                .filter(id -> !users.containsKey(id))
+                .toList();
+        if (!unknownIds.isEmpty()) {
+            throw new UnknownReferenceException("users", unknownIds);
+        }
+        return ids.stream()
+                .map(users::get)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Maps a session to create without looking anything up: the teacher only carries its id and has to be
+     * resolved by the caller, participants are dropped.
+     */
+    @Named("unresolved")
+    @Mappings({
+            @Mapping(target = "id", ignore = true),
+            @Mapping(target = "teacher", expression = "java(sessionDto.getTeacher_id() != null ? Teacher.builder().id(sessionDto.getTeacher_id()).build() : null)"),
+            @Mapping(target = "users", ignore = true),
+            @Mapping(target = "participantCount", ignore = true),
+            @Mapping(target = "version", ignore = true),
+            @Mapping(target = "series", ignore = true),
+    })
+    public abstract Session toUnresolvedEntity(SessionDto sessionDto);
+
 
     @Mappings({
             @Mapping(source = "description", target = "description"),
             @Mapping(source = "session.teacher.id", target = "teacher_id"),
+            @Mapping(source = "session.series.id", target = "series_id"),
             @Mapping(target = "users", expression = "java(Optional.ofNullable(session.getUsers()).orElseGet(Collections::emptyList).stream().map(u -> u.getId()).collect(Collectors.toList()))"),
     })
     public abstract SessionDto toDto(Session session);
+
+    @Named("withoutUsers")
+    @Mappings({
+            @Mapping(source = "session.teacher.id", target = "teacher_id"),
+            @Mapping(source = "session.series.id", target = "series_id"),
+            @Mapping(target = "users", ignore = true),
+    })
+    protected abstract SessionDto toDtoWithoutUsers(Session session);
+
+    /**
+     * Maps sessions whose participant ids were read beforehand, so that the lazy {@code users} collection
+     * is never initialized.
+     */
+    public List<SessionDto> toDto(List<Session> sessions, Map<Long, List<Long>> participantIds) {
+        return sessions.stream()
+                .map(session -> toDto(session, participantIds))
+                .collect(Collectors.toList());
+    }
+
+    public SessionDto toDto(Session session, Map<Long, List<Long>> participantIds) {
+        SessionDto sessionDto = toDtoWithoutUsers(session);
+        sessionDto.setUsers(participantIds.getOrDefault(session.getId(), Collections.emptyList()));
+        return sessionDto;
+    }
 }
@@ -0,0 +1,51 @@
+package com.openclassrooms.starterjwt.mapper;
+
+import com.openclassrooms.starterjwt.dto.SessionSeriesDto;
+import com.openclassrooms.starterjwt.exception.UnknownReferenceException;
+import com.openclassrooms.starterjwt.models.SessionSeries;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Mappings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Mapper(componentModel = "spring")
+public abstract class SessionSeriesMapper implements EntityMapper<SessionSeriesDto, SessionSeries> {
+
+    @Autowired
+    TeacherService teacherService;
+
+    @Mappings({
+            @Mapping(target = "teacher", expression = "java(resolveTeacher(seriesDto.getTeacher_id()))"),
+            @Mapping(source = "interval", target = "weekInterval", defaultValue = "1"),
+            @Mapping(source = "zoneId", target = "zoneId", defaultValue = "UTC"),
+            @Mapping(target = "materializedUntil", ignore = true),
+    })
+    public abstract SessionSeries toEntity(SessionSeriesDto seriesDto);
+
+    @Mappings({
+            @Mapping(source = "series.teacher.id", target = "teacher_id"),
+            @Mapping(source = "weekInterval", target = "interval"),
+    })
+    public abstract SessionSeriesDto toDto(SessionSeries series);
+
+    /**
+     * @throws UnknownReferenceException when there is no such teacher
+     */
+    protected Teacher resolveTeacher(Long teacherId) {
+        if (teacherId == null) {
+            return null;
+        }
+
+        Teacher teacher = this.teacherService.findById(teacherId);
+        if (teacher == null) {
+            throw new UnknownReferenceException("teacher", List.of(teacherId));
+        }
+        return teacher;
+    }
+}
@@ -1,11 +1,25 @@
 package com.openclassrooms.starterjwt.mapper;
 
 import com.openclassrooms.starterjwt.dto.TeacherDto;
+import com.openclassrooms.starterjwt.dto.TeacherScheduleDto;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.services.TeacherSchedule;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.Mappings;
 import org.springframework.stereotype.Component;
 
 @Component
 @Mapper(componentModel = "spring")
 public interface TeacherMapper extends EntityMapper<TeacherDto, Teacher> {
+
+    @Mapping(target = "version", ignore = true)
+    Teacher toEntity(TeacherDto teacherDto);
+
+    @Mappings({
+            @Mapping(source = "teacher.id", target = "id"),
+            @Mapping(source = "teacher.createdAt", target = "createdAt"),
+            @Mapping(source = "teacher.updatedAt", target = "updatedAt"),
+    })
+    TeacherScheduleDto toScheduleDto(Teacher teacher, TeacherSchedule schedule);
 }
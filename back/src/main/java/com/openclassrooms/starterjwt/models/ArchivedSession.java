@@ -0,0 +1,70 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A past session moved out of SESSIONS by the archival job, kept as it was on that day. The teacher and the
+ * participants are only referenced by id, so that archived rows never hold back a deletion.
+ */
+@Entity
+@Immutable
+@Table(name = "SESSIONS_ARCHIVE", indexes = {
+        @Index(name = "idx_sessions_archive_date", columnList = "date, id")
+})
+@Data
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ArchivedSession {
+    /**
+     * The id the session had in SESSIONS.
+     */
+    @Id
+    private Long id;
+
+    private String name;
+
+    private Date date;
+
+    @Column(length = 2500)
+    private String description;
+
+    @Column(name = "teacher_id")
+    private Long teacherId;
+
+    @Column(name = "series_id")
+    private Long seriesId;
+
+    private Integer duration;
+
+    private Integer capacity;
+
+    @Column(name = "participant_count", nullable = false)
+    private int participantCount;
+
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(
+            name = "PARTICIPATE_ARCHIVE",
+            joinColumns = @JoinColumn(name = "session_id"),
+            indexes = @Index(name = "idx_participate_archive_session", columnList = "session_id, user_id"))
+    @Column(name = "user_id")
+    @ToString.Exclude
+    private List<Long> userIds;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -2,11 +2,14 @@ package com.openclassrooms.starterjwt.models;
 
 
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -15,8 +18,13 @@ import java.util.Date;
 import java.util.List;
 
 @Entity
-@Table(name = "SESSIONS")
+@Table(name = "SESSIONS", indexes = {
+        @Index(name = "idx_sessions_date_teacher", columnList = "date, teacher_id"),
+        @Index(name = "idx_sessions_teacher_date", columnList = "teacher_id, date"),
+        @Index(name = "idx_sessions_version", columnList = "version")
+})
 @EntityListeners(AuditingEntityListener.class)
+@DynamicUpdate
 @Data
 @EqualsAndHashCode(of = {"id"})
 @Builder
@@ -24,8 +32,16 @@ import java.util.List;
 @AllArgsConstructor
 @ToString
 public class Session {
+    public static final int DEFAULT_DURATION = 60;
+    public static final int MAX_DURATION = 24 * 60;
+
+    /**
+     * Ids are allocated by blocks from a sequence rather than by the database on insert, which lets
+     * Hibernate send inserts as JDBC batches.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sessions_seq")
+    @SequenceGenerator(name = "sessions_seq", sequenceName = "SESSIONS_SEQ", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -39,17 +55,56 @@ public class Session {
     @Size(max = 2500)
     private String description;
 
-    @OneToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "teacher_id", referencedColumnName = "id")
+    @ToString.Exclude
     private Teacher teacher;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    /**
+     * The series this session is an occurrence of, {@code null} for a one-off session.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "series_id", referencedColumnName = "id")
+    @ToString.Exclude
+    private SessionSeries series;
+
+    /**
+     * Length of the session in minutes, {@value #DEFAULT_DURATION} when not given.
+     */
+    @Min(1)
+    @Max(MAX_DURATION)
+    private Integer duration;
+
+    /**
+     * Maximum number of participants, {@code null} when the session is not limited.
+     */
+    @Min(1)
+    private Integer capacity;
+
+    /**
+     * Number of PARTICIPATE rows of this session, kept in step with them so that a seat can be reserved
+     * with a single conditional update.
+     */
+    @Column(name = "participant_count", nullable = false)
+    private int participantCount;
+
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "PARTICIPATE",
             joinColumns = @JoinColumn( name = "session_id" ),
-            inverseJoinColumns = @JoinColumn( name = "user_id" ) )
+            inverseJoinColumns = @JoinColumn( name = "user_id" ),
+            uniqueConstraints = @UniqueConstraint(name = "uk_participate_session_user", columnNames = {"session_id", "user_id"}),
+            indexes = @Index(name = "idx_participate_user_session", columnList = "user_id, session_id") )
+    @ToString.Exclude
     private List<User> users;
 
+    /**
+     * Bumped by every update of the row, participations included, so that an edit made from a stale copy of
+     * the session is rejected instead of silently overwriting the other change.
+     */
+    @Version
+    private Long version;
+
     @CreatedDate
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,114 @@
+package com.openclassrooms.starterjwt.models;
+
+import com.openclassrooms.starterjwt.recurrence.WeeklyRecurrence;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Set;
+
+/**
+ * A class given on the same days and at the same time every week or every few weeks. Its occurrences are
+ * created as {@link Session}s only up to a rolling horizon, {@code materializedUntil}, and the later ones when
+ * the horizon moves on.
+ */
+@Entity
+@Table(name = "SESSION_SERIES")
+@EntityListeners(AuditingEntityListener.class)
+@Data
+@EqualsAndHashCode(of = {"id"})
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class SessionSeries {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Size(max = 50)
+    private String name;
+
+    @NotNull
+    @Size(max = 2500)
+    private String description;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "teacher_id", referencedColumnName = "id")
+    @ToString.Exclude
+    private Teacher teacher;
+
+    @Min(1)
+    private Integer capacity;
+
+    /**
+     * Length of every occurrence in minutes, {@value Session#DEFAULT_DURATION} when not given.
+     */
+    @Min(1)
+    @Max(Session.MAX_DURATION)
+    private Integer duration;
+
+    @NotNull
+    @Column(name = "start_date")
+    private LocalDate startDate;
+
+    /**
+     * Wall-clock time of the occurrences in {@code zoneId}, which stays the same across daylight saving changes.
+     */
+    @NotNull
+    @Column(name = "start_time")
+    private LocalTime startTime;
+
+    @NotNull
+    @Column(name = "zone_id")
+    private String zoneId;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "SESSION_SERIES_DAYS", joinColumns = @JoinColumn(name = "series_id"))
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week")
+    private Set<DayOfWeek> daysOfWeek;
+
+    @Min(1)
+    @Column(name = "week_interval")
+    private int weekInterval;
+
+    @NotNull
+    @Column(name = "until_date")
+    private LocalDate until;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "SESSION_SERIES_EXCEPTIONS", joinColumns = @JoinColumn(name = "series_id"))
+    @Column(name = "exception_date")
+    private Set<LocalDate> exceptions;
+
+    /**
+     * Last day whose occurrences have been created.
+     */
+    @Column(name = "materialized_until")
+    private LocalDate materializedUntil;
+
+    @CreatedDate
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public WeeklyRecurrence recurrence() {
+        return new WeeklyRecurrence(this.startDate, this.until, this.daysOfWeek, this.weekInterval, this.exceptions);
+    }
+}
@@ -2,6 +2,8 @@ package com.openclassrooms.starterjwt.models;
 
 import jakarta.persistence.Table;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -11,8 +13,14 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
+/**
+ * Teachers are read by nearly every request and almost never written, so they are kept in the second-level
+ * cache: loading one by id, or through a session, is served from memory once warm.
+ */
 @Entity
 @Table(name = "TEACHERS")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "teacher")
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @EqualsAndHashCode(of = {"id"})
@@ -35,6 +43,12 @@ public class Teacher {
     @Column(name = "first_name")
     private String firstName;
 
+    /**
+     * Bumped by every update of the row, the teachers list is tagged with the sum of the versions.
+     */
+    @Version
+    private Long version;
+
     @CreatedDate
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.pagination;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position of the last row returned in a page ordered by {@code (date, id)}.
+ * Exposed to clients as an opaque url-safe token.
+ */
+public record KeysetCursor(Date date, Long id) {
+
+    private static final String SEPARATOR = ":";
+
+    public String encode() {
+        String raw = date.getTime() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR);
+            if (parts.length != 2) {
+                throw new BadRequestException();
+            }
+            return new KeysetCursor(new Date(Long.parseLong(parts[0])), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException();
+        }
+    }
+}
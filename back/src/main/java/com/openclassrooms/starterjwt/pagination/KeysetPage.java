@@ -0,0 +1,23 @@
+package com.openclassrooms.starterjwt.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of rows plus the cursor to fetch the next one, {@code null} when this is the last page.
+ */
+public record KeysetPage<T>(List<T> items, String nextCursor) {
+
+    /**
+     * Builds a page from a query that was asked for {@code pageSize + 1} rows: the extra row only tells
+     * whether another page exists and is never returned.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int pageSize, Function<T, KeysetCursor> cursorOf) {
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+
+        List<T> items = rows.subList(0, pageSize);
+        return new KeysetPage<>(items, cursorOf.apply(items.get(pageSize - 1)).encode());
+    }
+}
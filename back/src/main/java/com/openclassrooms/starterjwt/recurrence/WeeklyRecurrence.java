@@ -0,0 +1,57 @@
+package com.openclassrooms.starterjwt.recurrence;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A weekly rule in the spirit of an iCalendar {@code RRULE:FREQ=WEEKLY;INTERVAL=..;BYDAY=..;UNTIL=..} with
+ * {@code EXDATE}s: the given days of every {@code interval}-th week, counted from the week of {@code start},
+ * from {@code start} to {@code until} included, except the {@code exceptions}.
+ */
+public record WeeklyRecurrence(LocalDate start, LocalDate until, Set<DayOfWeek> days, int interval,
+                               Set<LocalDate> exceptions) {
+
+    public WeeklyRecurrence {
+        if (start == null || until == null || until.isBefore(start)) {
+            throw new IllegalArgumentException("The recurrence must end after it starts");
+        }
+        if (days == null || days.isEmpty() || interval < 1) {
+            throw new IllegalArgumentException("The recurrence must repeat on at least one day");
+        }
+        days = Set.copyOf(days);
+        exceptions = exceptions == null ? Set.of() : Set.copyOf(exceptions);
+    }
+
+    /**
+     * @return the dates of the occurrences between {@code from} and {@code to} included, in order
+     */
+    public List<LocalDate> datesBetween(LocalDate from, LocalDate to) {
+        LocalDate first = from.isAfter(this.start) ? from : this.start;
+        LocalDate last = to.isBefore(this.until) ? to : this.until;
+        LocalDate firstWeek = weekOf(this.start);
+
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate week = weekOf(first); !week.isAfter(last); week = week.plusWeeks(1)) {
+            if (ChronoUnit.WEEKS.between(firstWeek, week) % this.interval != 0) {
+                continue;
+            }
+            for (int day = 0; day < 7; day++) {
+                LocalDate date = week.plusDays(day);
+                if (!date.isBefore(first) && !date.isAfter(last)
+                        && this.days.contains(date.getDayOfWeek()) && !this.exceptions.contains(date)) {
+                    dates.add(date);
+                }
+            }
+        }
+        return dates;
+    }
+
+    private static LocalDate weekOf(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
@@ -0,0 +1,12 @@
+package com.openclassrooms.starterjwt.repository;
+
+/**
+ * The participant count recorded on a session next to the number of its PARTICIPATE rows.
+ */
+public interface ParticipantCount {
+    Long getSessionId();
+
+    int getRecorded();
+
+    long getActual();
+}
@@ -0,0 +1,53 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.ArchivedSession;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface SessionArchiveRepository extends JpaRepository<ArchivedSession, Long> {
+    /**
+     * Archived sessions of the range ordered by {@code (date, id)}, after the given position when there is one.
+     */
+    @Query("select a from ArchivedSession a " +
+            "where (:from is null or a.date >= :from) and (:to is null or a.date < :to) " +
+            "and (:afterDate is null or a.date > :afterDate or (a.date = :afterDate and a.id > :afterId)) " +
+            "order by a.date, a.id")
+    List<ArchivedSession> findPage(@Param("from") Date from,
+                                   @Param("to") Date to,
+                                   @Param("afterDate") Date afterDate,
+                                   @Param("afterId") Long afterId,
+                                   Limit limit);
+
+    @Query(value = "select p.session_id as sessionId, p.user_id as userId from PARTICIPATE_ARCHIVE p " +
+            "where p.session_id in (:sessionIds)", nativeQuery = true)
+    List<SessionParticipant> findParticipants(@Param("sessionIds") Collection<Long> sessionIds);
+
+    /**
+     * Copies the sessions into the archive, as they are.
+     */
+    @Modifying
+    @Query("insert into ArchivedSession (id, name, date, description, teacherId, seriesId, duration, capacity, " +
+            "participantCount, createdAt, updatedAt, archivedAt) " +
+            "select s.id, s.name, s.date, s.description, s.teacher.id, s.series.id, s.duration, s.capacity, " +
+            "s.participantCount, s.createdAt, s.updatedAt, local datetime " +
+            "from Session s where s.id in :ids")
+    int copySessions(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "PARTICIPATE_ARCHIVE"))
+    @Query(value = "insert into PARTICIPATE_ARCHIVE (session_id, user_id) " +
+            "select p.session_id, p.user_id from PARTICIPATE p where p.session_id in (:ids)", nativeQuery = true)
+    int copyParticipants(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,19 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.Date;
+
+/**
+ * Restricts a session listing. Every criterion is optional.
+ *
+ * @param from          first date included
+ * @param to            first date excluded
+ * @param teacherId     teacher giving the sessions
+ * @param participantId user taking part in the sessions
+ */
+public record SessionFilter(Date from, Date to, Long teacherId, Long participantId) {
+    public static final SessionFilter NONE = new SessionFilter(null, null, null);
+
+    public SessionFilter(Date from, Date to, Long teacherId) {
+        this(from, to, teacherId, null);
+    }
+}
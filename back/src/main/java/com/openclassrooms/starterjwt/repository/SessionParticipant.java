@@ -0,0 +1,10 @@
+package com.openclassrooms.starterjwt.repository;
+
+/**
+ * A single row of the PARTICIPATE join table.
+ */
+public interface SessionParticipant {
+    Long getSessionId();
+
+    Long getUserId();
+}
@@ -1,9 +1,138 @@
 package com.openclassrooms.starterjwt.repository;
 
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
 import com.openclassrooms.starterjwt.models.Session;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface SessionRepository  extends JpaRepository<Session, Long> {
+public interface SessionRepository  extends JpaRepository<Session, Long>, SessionRepositoryCustom {
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Streams every session ordered by {@code (date, id)}, fetching {@value #STREAM_FETCH_SIZE} rows per round
+     * trip instead of the whole result set. The entities are read-only and must be detached by the caller as
+     * it goes; the stream has to be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+    })
+    @Query("select s from Session s order by s.date asc, s.id asc")
+    Stream<Session> streamAll();
+
+    @Query(value = "select p.session_id as sessionId, p.user_id as userId from PARTICIPATE p " +
+            "where p.session_id in (:sessionIds)", nativeQuery = true)
+    List<SessionParticipant> findParticipants(@Param("sessionIds") Collection<Long> sessionIds);
+
+    @Query("select count(s) as total, max(s.id) as lastId, sum(s.version) as revision from Session s")
+    TableVersion findVersion();
+
+    /**
+     * Takes {@code seats} seats if the session still has them. The check and the increment are a single
+     * statement, so concurrent reservations can never oversell and the row lock only lasts until commit.
+     *
+     * @return 1 when the seats were reserved, 0 when the session is full or does not exist
+     */
+    @Modifying
+    @Query("update Session s set s.participantCount = s.participantCount + :seats, s.version = s.version + 1, " +
+            "s.updatedAt = local datetime " +
+            "where s.id = :id and (s.capacity is null or s.participantCount + :seats <= s.capacity)")
+    int reserveSeats(@Param("id") Long id, @Param("seats") int seats);
+
+    /**
+     * Reads the seats of a session and locks its row until the end of the transaction, so that the seats
+     * reserved next are computed from a count nobody else can change in between. A plain read would not do
+     * on MySQL, where it returns the snapshot taken at the start of the transaction.
+     *
+     * @return empty when the session does not exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s.capacity as capacity, s.participantCount as participantCount from Session s where s.id = :id")
+    Optional<SessionSeats> findSeatsForUpdate(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Session s set s.participantCount = s.participantCount - :seats, s.version = s.version + 1, " +
+            "s.updatedAt = local datetime " +
+            "where s.id = :id")
+    int releaseSeats(@Param("id") Long id, @Param("seats") int seats);
+
+    // native statements name the tables they write as query spaces, or Hibernate takes them for writes to every
+    // table and empties the whole second-level and query caches, teachers included
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "PARTICIPATE"))
+    @Query(value = "insert into PARTICIPATE (session_id, user_id) values (:sessionId, :userId)", nativeQuery = true)
+    int addParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "PARTICIPATE"))
+    @Query(value = "delete from PARTICIPATE where session_id = :sessionId and user_id = :userId", nativeQuery = true)
+    int removeParticipant(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    /**
+     * Recorded participant counts next to the PARTICIPATE rows they stand for, a chunk of sessions at a time.
+     */
+    @Query(value = "select s.id as sessionId, s.participant_count as recorded, " +
+            "(select count(*) from PARTICIPATE p where p.session_id = s.id) as actual " +
+            "from SESSIONS s where s.id > :afterId order by s.id limit :limit", nativeQuery = true)
+    List<ParticipantCount> findParticipantCounts(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    /**
+     * Recounts the participants of the given sessions. The count is taken again under the row lock, so a booking
+     * committed since the sessions were found drifting is not undone.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "SESSIONS"))
+    @Query(value = "update SESSIONS s set " +
+            "participant_count = (select count(*) from PARTICIPATE p where p.session_id = s.id), " +
+            "version = version + 1, updated_at = LOCALTIMESTAMP " +
+            "where s.id in (:ids) " +
+            "and participant_count <> (select count(*) from PARTICIPATE p where p.session_id = s.id)", nativeQuery = true)
+    int recountParticipants(@Param("ids") Collection<Long> ids);
+
+    /**
+     * @return the ids of the sessions held before the cutoff, the oldest ids first
+     */
+    @Query("select s.id from Session s where s.date < :cutoff order by s.id")
+    List<Long> findIdsBefore(@Param("cutoff") Date cutoff, Limit limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "PARTICIPATE"))
+    @Query(value = "delete from PARTICIPATE where session_id in (:ids)", nativeQuery = true)
+    int removeParticipants(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The sessions a teacher gives within the range, read through the {@code (teacher_id, date)} index.
+     */
+    @Query("select new com.openclassrooms.starterjwt.dto.SessionSummaryDto(" +
+            "s.id, s.name, s.date, s.teacher.id, s.capacity, s.participantCount) " +
+            "from Session s where s.teacher.id = :teacherId and s.date >= :from and s.date < :to " +
+            "order by s.date, s.id")
+    List<SessionSummaryDto> findTeacherSummaries(@Param("teacherId") Long teacherId,
+                                                 @Param("from") Date from,
+                                                 @Param("to") Date to);
+
+    /**
+     * Streams the slot of every session given by a teacher, {@value #STREAM_FETCH_SIZE} rows per round trip.
+     * The stream has to be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query("select s.id as sessionId, s.teacher.id as teacherId, s.date as date, s.duration as duration " +
+            "from Session s where s.teacher.id is not null")
+    Stream<SessionSlot> streamSlots();
 }
@@ -0,0 +1,28 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.pagination.KeysetCursor;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SessionRepositoryCustom {
+
+    /**
+     * Reads at most {@code limit} sessions matching the filter, ordered by {@code (date, id)} and coming after
+     * {@code after} when given. Only the criteria actually set end up in the WHERE clause, so that a date range
+     * is served by a range scan of {@code idx_sessions_date_teacher}.
+     */
+    List<Session> findPage(SessionFilter filter, KeysetCursor after, int limit);
+
+    /**
+     * Same page as {@link #findPage}, reading only the columns of a {@link SessionSummaryDto}.
+     */
+    List<SessionSummaryDto> findSummaryPage(SessionFilter filter, KeysetCursor after, int limit);
+
+    /**
+     * Inserts one PARTICIPATE row per user as a single JDBC batch.
+     */
+    void addParticipants(Long sessionId, Collection<Long> userIds);
+}
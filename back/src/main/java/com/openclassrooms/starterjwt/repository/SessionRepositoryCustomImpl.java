@@ -0,0 +1,102 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.pagination.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BiFunction;
+
+public class SessionRepositoryCustomImpl implements SessionRepositoryCustom {
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManager entityManager;
+
+    public SessionRepositoryCustomImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Session> findPage(SessionFilter filter, KeysetCursor after, int limit) {
+        return findPage(Session.class, (cb, session) -> session, filter, after, limit);
+    }
+
+    @Override
+    public List<SessionSummaryDto> findSummaryPage(SessionFilter filter, KeysetCursor after, int limit) {
+        return findPage(SessionSummaryDto.class, (cb, session) -> cb.construct(SessionSummaryDto.class,
+                session.get("id"),
+                session.get("name"),
+                session.get("date"),
+                session.get("teacher").get("id"),
+                session.get("capacity"),
+                session.get("participantCount")), filter, after, limit);
+    }
+
+    private <T> List<T> findPage(Class<T> resultType,
+                                 BiFunction<CriteriaBuilder, Root<Session>, Selection<? extends T>> selection,
+                                 SessionFilter filter, KeysetCursor after, int limit) {
+        CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(resultType);
+        Root<Session> session = query.from(Session.class);
+        Path<Date> date = session.get("date");
+        Path<Long> id = session.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.from() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(date, filter.from()));
+        }
+        if (filter.to() != null) {
+            predicates.add(cb.lessThan(date, filter.to()));
+        }
+        if (filter.teacherId() != null) {
+            predicates.add(cb.equal(session.get("teacher").get("id"), filter.teacherId()));
+        }
+        if (filter.participantId() != null) {
+            // read from PARTICIPATE through its (user_id, session_id) index: only the user's bookings are visited
+            Join<Session, User> participants = session.join("users");
+            predicates.add(cb.equal(participants.get("id"), filter.participantId()));
+        }
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.greaterThan(date, after.date()),
+                    cb.and(cb.equal(date, after.date()), cb.greaterThan(id, after.id()))));
+        }
+        query.select(selection.apply(cb, session))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(date), cb.asc(id));
+
+        return this.entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public void addParticipants(Long sessionId, Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        this.jdbcTemplate.batchUpdate(
+                "insert into PARTICIPATE (session_id, user_id) values (?, ?)",
+                userIds,
+                userIds.size(),
+                (ps, userId) -> {
+                    ps.setLong(1, sessionId);
+                    ps.setLong(2, userId);
+                });
+    }
+}
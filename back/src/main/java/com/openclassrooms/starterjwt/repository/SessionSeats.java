@@ -0,0 +1,14 @@
+package com.openclassrooms.starterjwt.repository;
+
+/**
+ * The seats of a session: its capacity, {@code null} when it is not limited, and the seats already taken.
+ */
+public interface SessionSeats {
+    Integer getCapacity();
+
+    int getParticipantCount();
+
+    default int freeSeats(int wanted) {
+        return getCapacity() == null ? wanted : Math.min(wanted, getCapacity() - getParticipantCount());
+    }
+}
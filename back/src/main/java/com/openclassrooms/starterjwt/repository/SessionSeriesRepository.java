@@ -0,0 +1,31 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.SessionSeries;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SessionSeriesRepository extends JpaRepository<SessionSeries, Long> {
+    /**
+     * @return the ids of the series that still have occurrences to create before {@code horizon}
+     */
+    @Query("select s.id from SessionSeries s where s.materializedUntil < s.until and s.materializedUntil < :horizon " +
+            "order by s.id")
+    List<Long> findIdsMaterializableBefore(@Param("horizon") LocalDate horizon);
+
+    /**
+     * Reads the series and locks its row until the end of the transaction, so that two instances extending it at
+     * the same time run one after the other, the second one reading the horizon left by the first.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from SessionSeries s where s.id = :id")
+    Optional<SessionSeries> findByIdForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,16 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.Date;
+
+/**
+ * When a session is given and by whom, without the rest of the row.
+ */
+public interface SessionSlot {
+    Long getSessionId();
+
+    Long getTeacherId();
+
+    Date getDate();
+
+    Integer getDuration();
+}
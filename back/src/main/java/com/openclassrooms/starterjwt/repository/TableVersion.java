@@ -0,0 +1,28 @@
+package com.openclassrooms.starterjwt.repository;
+
+/**
+ * Row count, highest id and sum of the row versions of a table, a version of the table's content that is read
+ * without loading any row. Every update of a row increments its {@code version}, so the sum only grows while no
+ * row is deleted; a delete lowers the count, and a row inserted in its place gets an id above every other one,
+ * which moves the highest id. Unlike the latest {@code updated_at}, it cannot stay the same when two changes
+ * fall within the same clock tick.
+ */
+public interface TableVersion {
+    long getTotal();
+
+    Long getLastId();
+
+    Long getRevision();
+
+    /**
+     * @return a strong entity tag for a representation built from the whole table
+     */
+    default String toETag() {
+        return "\"" + Long.toHexString(getTotal()) + "-" + Long.toHexString(orZero(getLastId())) + "-"
+                + Long.toHexString(orZero(getRevision())) + "\"";
+    }
+
+    private static long orZero(Long value) {
+        return value == null ? 0 : value;
+    }
+}
@@ -1,9 +1,26 @@
 package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Teacher;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
+/**
+ * The teacher queries go through the query cache: Hibernate drops their results as soon as TEACHERS is written.
+ */
 @Repository
 public interface TeacherRepository  extends JpaRepository<Teacher, Long> {
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Teacher> findAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select count(t) as total, max(t.id) as lastId, sum(t.version) as revision from Teacher t")
+    TableVersion findVersion();
 }
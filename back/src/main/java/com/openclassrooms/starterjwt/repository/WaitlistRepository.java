@@ -0,0 +1,36 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+    /**
+     * @return the ids of the users waiting for the session, the first in line first
+     */
+    @Query("select w.userId from WaitlistEntry w where w.sessionId = :sessionId order by w.id")
+    List<Long> findUserIds(@Param("sessionId") Long sessionId, Limit limit);
+
+    @Query("select distinct w.sessionId from WaitlistEntry w")
+    List<Long> findSessionIds();
+
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.sessionId = :sessionId and w.userId in :userIds")
+    int deleteUsers(@Param("sessionId") Long sessionId, @Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.sessionId = :sessionId")
+    int deleteBySessionId(@Param("sessionId") Long sessionId);
+
+    @Modifying
+    @Query("delete from WaitlistEntry w where w.sessionId in :sessionIds")
+    int deleteBySessionIds(@Param("sessionIds") Collection<Long> sessionIds);
+}
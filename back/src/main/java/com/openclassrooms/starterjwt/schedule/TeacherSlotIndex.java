@@ -0,0 +1,236 @@
+package com.openclassrooms.starterjwt.schedule;
+
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSlot;
+import com.openclassrooms.starterjwt.services.SessionChangedEvent;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * The time slots of the sessions of every teacher, held in memory so that a double booking is found without
+ * querying SESSIONS. The slots of a teacher are kept in a red-black tree ordered by start; since no session
+ * lasts more than {@link Session#MAX_DURATION} minutes, the slots overlapping a new one all start within that
+ * much before its end, and finding them costs a range lookup, O(log n) plus the few slots of that day.
+ * <p>
+ * The index is built once every singleton is created, before the web server starts and the schedulers run, so
+ * that no session is written before it is complete. It then follows every {@link SessionChangedEvent} once the
+ * change is committed. In between, {@link #reserve} holds the slot of a session being written, so that two
+ * transactions booking the same teacher at the same time cannot both succeed.
+ */
+@Component
+@Log4j2
+public class TeacherSlotIndex implements SmartInitializingSingleton {
+    private static final long MAX_DURATION_MS = TimeUnit.MINUTES.toMillis(Session.MAX_DURATION);
+
+    private final SessionRepository sessionRepository;
+
+    // read-write, so that the slots are read from the primary and not from a replica lagging behind
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // teacher id -> committed and reserved slots of the teacher
+    private final Map<Long, NavigableSet<Slot>> slotsByTeacher = new HashMap<>();
+
+    // session id -> its committed slot, to unindex a session without knowing its former teacher
+    private final Map<Long, Slot> slotsBySession = new HashMap<>();
+
+    public TeacherSlotIndex(SessionRepository sessionRepository, PlatformTransactionManager transactionManager) {
+        this.sessionRepository = sessionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Reloads the committed slots from the database. The slots reserved by transactions still running are kept,
+     * their commit or rollback updates the index as usual.
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            List<Slot> reserved = slotsByTeacher.values().stream()
+                    .flatMap(NavigableSet::stream)
+                    .filter(slot -> !slot.equals(slotsBySession.get(slot.sessionId())))
+                    .toList();
+            slotsByTeacher.clear();
+            slotsBySession.clear();
+            transactionTemplate.executeWithoutResult(transaction -> {
+                try (Stream<SessionSlot> slots = this.sessionRepository.streamSlots()) {
+                    slots.forEach(slot -> commit(Slot.of(slot.getSessionId(), slot.getTeacherId(), slot.getDate(), slot.getDuration())));
+                }
+            });
+            reserved.forEach(slot -> slotsByTeacher.computeIfAbsent(slot.teacherId(), id -> new TreeSet<>()).add(slot));
+            log.info("Indexed the slots of {} sessions", slotsBySession.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            Slot previous = slotsBySession.remove(event.sessionId());
+            if (previous != null) {
+                remove(previous);
+            }
+            if (!event.isDeleted()) {
+                commit(Slot.of(event.session()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Holds the slot of a session about to be saved, unless it overlaps another session of its teacher. It must
+     * be called inside the transaction saving the session: the slot is kept once the change is committed and
+     * released if it rolls back.
+     *
+     * @throws ConflictException when the teacher gives another session at that time
+     */
+    public void reserve(Session session) {
+        Slot slot = Slot.of(session);
+        if (slot == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (overlaps(slot)) {
+                throw new ConflictException();
+            }
+            slotsByTeacher.computeIfAbsent(slot.teacherId(), id -> new TreeSet<>()).add(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(slot);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * @return whether the teacher of the session gives another session at that time, {@code false} for a session
+     * without teacher or date
+     */
+    public boolean isBooked(Session session) {
+        Slot slot = Slot.of(session);
+        if (slot == null) {
+            return false;
+        }
+
+        lock.readLock().lock();
+        try {
+            return overlaps(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean overlaps(Slot slot) {
+        NavigableSet<Slot> slots = slotsByTeacher.get(slot.teacherId());
+        if (slots == null) {
+            return false;
+        }
+        Slot from = new Slot(slot.start() - MAX_DURATION_MS, Long.MIN_VALUE, slot.teacherId(), 0);
+        Slot to = new Slot(slot.end(), Long.MIN_VALUE, slot.teacherId(), 0);
+        for (Slot other : slots.subSet(from, true, to, false)) {
+            if (other.sessionId() != slot.sessionId() && other.end() > slot.start()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void commit(Slot slot) {
+        if (slot != null) {
+            slotsBySession.put(slot.sessionId(), slot);
+            slotsByTeacher.computeIfAbsent(slot.teacherId(), id -> new TreeSet<>()).add(slot);
+        }
+    }
+
+    private void release(Slot slot) {
+        lock.writeLock().lock();
+        try {
+            // the session may have held this very slot before the rolled back change
+            if (!slot.equals(slotsBySession.get(slot.sessionId()))) {
+                remove(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Slot slot) {
+        NavigableSet<Slot> slots = slotsByTeacher.get(slot.teacherId());
+        if (slots != null) {
+            slots.remove(slot);
+            if (slots.isEmpty()) {
+                slotsByTeacher.remove(slot.teacherId());
+            }
+        }
+    }
+
+    /**
+     * A session of a teacher from {@code start} to {@code end}, in epoch milliseconds.
+     */
+    private record Slot(long start, long sessionId, long teacherId, long end) implements Comparable<Slot> {
+
+        static Slot of(Session session) {
+            return of(session.getId(), session.getTeacher() == null ? null : session.getTeacher().getId(),
+                    session.getDate(), session.getDuration());
+        }
+
+        static Slot of(Long sessionId, Long teacherId, Date date, Integer duration) {
+            if (teacherId == null || date == null) {
+                return null;
+            }
+            long start = date.getTime();
+            int minutes = duration == null ? Session.DEFAULT_DURATION : duration;
+            // a session not saved yet has no id, it is checked against every session of the teacher
+            return new Slot(start, sessionId == null ? Long.MIN_VALUE : sessionId, teacherId,
+                    start + TimeUnit.MINUTES.toMillis(minutes));
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int byStart = Long.compare(start, other.start);
+            if (byStart != 0) {
+                return byStart;
+            }
+            int bySession = Long.compare(sessionId, other.sessionId);
+            return bySession != 0 ? bySession : Long.compare(end, other.end);
+        }
+    }
+}
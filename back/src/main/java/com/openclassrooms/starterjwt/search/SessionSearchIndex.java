@@ -0,0 +1,278 @@
+package com.openclassrooms.starterjwt.search;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.services.SessionChangedEvent;
+import jakarta.persistence.EntityManager;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over the name and description of the sessions, held in memory so that a search never scans
+ * the SESSIONS table. Words are lower-cased and stripped of their accents; the sorted term dictionary answers
+ * prefix queries with a range lookup.
+ * <p>
+ * The index is built once every singleton is created, before the web server starts, so that no change is
+ * applied to it and then lost by the build. It then follows every {@link SessionChangedEvent} once the change is
+ * committed.
+ */
+@Component
+@Log4j2
+public class SessionSearchIndex implements SmartInitializingSingleton {
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final SessionRepository sessionRepository;
+
+    private final EntityManager entityManager;
+
+    // read-write, so that the sessions are read from the primary and not from a replica lagging behind
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // term -> session id -> weight of the term in the session
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    // session id -> terms, to unindex a session without walking the whole dictionary
+    private final Map<Long, Set<String>> termsBySession = new HashMap<>();
+
+    public SessionSearchIndex(SessionRepository sessionRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager) {
+        this.sessionRepository = sessionRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsBySession.clear();
+            transactionTemplate.executeWithoutResult(transaction -> {
+                try (Stream<Session> sessions = this.sessionRepository.streamAll()) {
+                    sessions.forEach(session -> {
+                        add(session);
+                        this.entityManager.detach(session);
+                    });
+                }
+            });
+            log.info("Indexed {} sessions for search", termsBySession.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.sessionId());
+            if (!event.isDeleted()) {
+                add(event.session());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the sessions holding, for every word of the query, a word starting with it. A whole word match counts
+     * twice as much as a prefix match and a match in the name three times as much as one in the description.
+     * <p>
+     * Only the sessions matching the rarest word of the query are scored, and only the best {@code limit} of them
+     * are kept while scoring, so a search never sorts nor copies the postings of common words.
+     *
+     * @return at most {@code limit} session ids, the best match first
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = tokenize(query).distinct().toList();
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<List<Match>> matchesByToken = new ArrayList<>(tokens.size());
+            int rarest = -1;
+            int rarestSize = Integer.MAX_VALUE;
+            for (String token : tokens) {
+                List<Match> matches = new ArrayList<>();
+                int size = 0;
+                for (var term : postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                    matches.add(new Match(term.getValue(), term.getKey().length() == token.length() ? 2 : 1));
+                    size += term.getValue().size();
+                }
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+                if (size < rarestSize) {
+                    rarest = matchesByToken.size();
+                    rarestSize = size;
+                }
+                matchesByToken.add(matches);
+            }
+
+            TopScores top = new TopScores(limit);
+            List<List<Match>> others = new ArrayList<>(matchesByToken);
+            List<Match> rarestMatches = others.remove(rarest);
+            // a session holding several words with the rarest prefix is met once per word
+            Set<Long> scored = rarestMatches.size() > 1 ? new HashSet<>() : null;
+            for (Match match : rarestMatches) {
+                for (var posting : match.sessions().entrySet()) {
+                    Long sessionId = posting.getKey();
+                    if (scored != null && !scored.add(sessionId)) {
+                        continue;
+                    }
+                    int rarestScore = scored == null ? posting.getValue() * match.factor() : scoreToken(rarestMatches, sessionId);
+                    int othersScore = scoreTokens(others, sessionId);
+                    if (othersScore >= 0) {
+                        top.offer(sessionId, rarestScore + othersScore);
+                    }
+                }
+            }
+            return top.toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the score of the session for the given words, -1 when one of them is missing from it
+     */
+    private static int scoreTokens(List<List<Match>> matchesByToken, Long sessionId) {
+        int score = 0;
+        for (List<Match> matches : matchesByToken) {
+            int tokenScore = scoreToken(matches, sessionId);
+            if (tokenScore == 0) {
+                return -1;
+            }
+            score += tokenScore;
+        }
+        return score;
+    }
+
+    private static int scoreToken(List<Match> matches, Long sessionId) {
+        int score = 0;
+        for (Match match : matches) {
+            Integer weight = match.sessions().get(sessionId);
+            if (weight != null) {
+                score += weight * match.factor();
+            }
+        }
+        return score;
+    }
+
+    private void add(Session session) {
+        Map<String, Integer> weights = new HashMap<>();
+        tokenize(session.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        tokenize(session.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(session.getId(), weight));
+        termsBySession.put(session.getId(), weights.keySet());
+    }
+
+    private void remove(Long sessionId) {
+        Set<String> terms = termsBySession.remove(sessionId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> sessions = postings.get(term);
+            sessions.remove(sessionId);
+            if (sessions.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static Stream<String> tokenize(String text) {
+        if (text == null) {
+            return Stream.empty();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_WORD.splitAsStream(folded.toLowerCase(Locale.ROOT))
+                .filter(term -> !term.isEmpty());
+    }
+
+    private record Match(Map<Long, Integer> sessions, int factor) {
+    }
+
+    /**
+     * Keeps the {@code limit} best sessions offered, by score then by id.
+     */
+    private static final class TopScores {
+        private final long[] ids;
+        private final int[] scores;
+        private int size;
+        private int worst;
+
+        TopScores(int limit) {
+            ids = new long[limit];
+            scores = new int[limit];
+        }
+
+        void offer(long id, int score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                size++;
+                if (size == ids.length) {
+                    worst = findWorst();
+                }
+            } else if (size > 0 && isBetter(id, score, ids[worst], scores[worst])) {
+                ids[worst] = id;
+                scores[worst] = score;
+                worst = findWorst();
+            }
+        }
+
+        List<Long> toList() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> isBetter(ids[a], scores[a], ids[b], scores[b]) ? -1 : 1);
+
+            List<Long> result = new ArrayList<>(size);
+            for (Integer i : order) {
+                result.add(ids[i]);
+            }
+            return result;
+        }
+
+        private int findWorst() {
+            int index = 0;
+            for (int i = 1; i < size; i++) {
+                if (isBetter(ids[index], scores[index], ids[i], scores[i])) {
+                    index = i;
+                }
+            }
+            return index;
+        }
+
+        private static boolean isBetter(long id, int score, long otherId, int otherScore) {
+            return score > otherScore || (score == otherScore && id < otherId);
+        }
+    }
+}
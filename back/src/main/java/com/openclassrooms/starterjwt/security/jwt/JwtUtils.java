@@ -1,10 +1,17 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import java.time.Duration;
 import java.util.Date;
+import java.util.Optional;
 import java.util.function.Function;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -27,6 +34,32 @@ public class JwtUtils {
   @Value("${application.security.jwt.jwtExpirationMs}")
   private int jwtExpirationMs;
 
+  @Value("${application.security.jwt.cache-size:10000}")
+  private int cacheSize = 10000;
+
+  private SecretKey signInKey;
+
+  // thread-safe once built, shared by every request
+  private JwtParser parser;
+
+  // signature -> claims of a token already verified, dropped when the token expires
+  private Cache<String, VerifiedToken> verifiedTokens;
+
+  /**
+   * Decodes the secret and builds the parser once, instead of on every token.
+   */
+  @PostConstruct
+  public void init() {
+    this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    this.parser = Jwts.parser()
+            .verifyWith(signInKey)
+            .build();
+    this.verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfter(new UntilTokenExpires())
+            .build();
+  }
+
   public String generateJwtToken(Authentication authentication) {
 
     UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
@@ -40,7 +73,7 @@ public class JwtUtils {
   }
 
   public SecretKey getSignInKey() {
-    return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    return signInKey;
   }
 
   public String getUserNameFromJwtToken(String token) {
@@ -48,9 +81,29 @@ public class JwtUtils {
   }
 
   public boolean validateJwtToken(String authToken) {
+    return verifyJwtToken(authToken).isPresent();
+  }
+
+  /**
+   * Verifies a token and returns its claims, parsing it only once. A token seen recently is recognized by its
+   * signature and not verified again until it expires; the whole token is still compared, so a known signature
+   * glued to another payload is parsed, and rejected, like any other token.
+   *
+   * @return the claims of the token, empty when it is invalid or expired
+   */
+  public Optional<Claims> verifyJwtToken(String authToken) {
+    String signature = signatureOf(authToken);
+    VerifiedToken verified = signature == null ? null : verifiedTokens.getIfPresent(signature);
+    if (verified != null && verified.token().equals(authToken)) {
+      return Optional.of(verified.claims());
+    }
+
     try {
-      getAllClaimsFromToken(authToken);
-      return true;
+      Claims claims = getAllClaimsFromToken(authToken);
+      if (signature != null && claims.getExpiration() != null) {
+        verifiedTokens.put(signature, new VerifiedToken(authToken, claims));
+      }
+      return Optional.of(claims);
     } catch (SignatureException e) {
       logger.error("Invalid JWT signature: {}", e.getMessage());
     } catch (MalformedJwtException e) {
@@ -63,7 +116,7 @@ public class JwtUtils {
       logger.error("JWT claims string is empty: {}", e.getMessage());
     }
 
-    return false;
+    return Optional.empty();
   }
 
   private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -72,10 +125,32 @@ public class JwtUtils {
   }
 
   public Claims getAllClaimsFromToken(String token) {
-    return Jwts.parser()
-            .verifyWith(getSignInKey())
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+    return parser.parseSignedClaims(token).getPayload();
+  }
+
+  private static String signatureOf(String token) {
+    int dot = token == null ? -1 : token.lastIndexOf('.');
+    return dot < 0 || dot == token.length() - 1 ? null : token.substring(dot + 1);
+  }
+
+  private record VerifiedToken(String token, Claims claims) {
+  }
+
+  private static class UntilTokenExpires implements Expiry<String, VerifiedToken> {
+    @Override
+    public long expireAfterCreate(String signature, VerifiedToken verified, long currentTime) {
+      long remainingMs = verified.claims().getExpiration().getTime() - System.currentTimeMillis();
+      return Duration.ofMillis(Math.max(remainingMs, 0)).toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(String signature, VerifiedToken verified, long currentTime, long currentDuration) {
+      return expireAfterCreate(signature, verified, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String signature, VerifiedToken verified, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
   }
 }
@@ -0,0 +1,8 @@
+package com.openclassrooms.starterjwt.services;
+
+public enum EnrollmentStatus {
+    ENROLLED,
+    ALREADY_PARTICIPATING,
+    USER_NOT_FOUND,
+    SESSION_FULL
+}
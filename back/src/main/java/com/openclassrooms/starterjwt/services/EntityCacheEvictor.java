@@ -0,0 +1,85 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the {@value SessionService#CACHE} cache in step with the writes. A session is evicted once a change to it
+ * is committed, since evicting from the writing method would let a reader cache the old row again while the
+ * transaction is still open. That alone leaves a race: a reader that loaded the row just before the commit could
+ * still put it back right after the eviction. Every eviction therefore bumps a generation of the session, and
+ * {@link #getSession} only caches the session it loaded when no eviction happened in between; the check and the
+ * put hold the same per-key lock as the eviction, so neither can slip between the other's steps.
+ */
+@Component
+public class EntityCacheEvictor {
+    // longer than any read of a session takes, a generation forgotten early could let a stale read through
+    private static final Duration GENERATION_TTL = Duration.ofMinutes(1);
+
+    private final CacheManager cacheManager;
+
+    // session id -> number of evictions of the session in the last minute
+    private final ConcurrentMap<Long, Long> generations = Caffeine.newBuilder()
+            .expireAfterWrite(GENERATION_TTL)
+            .<Long, Long>build()
+            .asMap();
+
+    public EntityCacheEvictor(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * @param loader reads the session from the database when it is not cached, {@code null} when it does not exist
+     * @return the cached session, or the one loaded, cached unless it was changed while being loaded
+     */
+    public Session getSession(Long sessionId, Supplier<Session> loader) {
+        Cache sessions = this.cacheManager.getCache(SessionService.CACHE);
+        if (sessions == null) {
+            return loader.get();
+        }
+        Session cached = sessions.get(sessionId, Session.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = generations.getOrDefault(sessionId, 0L);
+        Session session = loader.get();
+        if (session != null) {
+            generations.compute(sessionId, (id, current) -> {
+                if ((current == null ? 0L : current) == generation) {
+                    sessions.put(id, session);
+                }
+                return current;
+            });
+        }
+        return session;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        evictSession(event.sessionId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionParticipantsChanged(SessionParticipantsChangedEvent event) {
+        evictSession(event.sessionId());
+    }
+
+    private void evictSession(Long sessionId) {
+        Cache sessions = this.cacheManager.getCache(SessionService.CACHE);
+        if (sessions != null) {
+            generations.compute(sessionId, (id, current) -> {
+                sessions.evict(id);
+                return current == null ? 1L : current + 1;
+            });
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.openclassrooms.starterjwt.services;
+
+import java.util.List;
+
+/**
+ * The outcome of {@link SessionImportService#importSessions}.
+ *
+ * @param imported  the number of created sessions
+ * @param conflicts the positions in the input, from 0, of the sessions skipped because their teacher already
+ *                  gives a session at that time
+ */
+public record ImportResult(int imported, List<Integer> conflicts) {
+}
@@ -0,0 +1,61 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.repository.ParticipantCount;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Checks that the denormalized participant count of every session still matches its PARTICIPATE rows, and
+ * repairs the ones that drifted, e.g. after rows were edited by hand. Sessions are read in chunks of
+ * {@code batch-size} by id, so the job never holds a long transaction.
+ */
+@Component
+@Log4j2
+public class ParticipantCountReconciler {
+    private final SessionRepository sessionRepository;
+
+    private final SessionService sessionService;
+
+    private final int batchSize;
+
+    public ParticipantCountReconciler(SessionRepository sessionRepository,
+                                      SessionService sessionService,
+                                      @Value("${application.session.reconcile.batch-size:500}") int batchSize) {
+        this.sessionRepository = sessionRepository;
+        this.sessionService = sessionService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the number of repaired sessions
+     */
+    @Scheduled(cron = "${application.session.reconcile.cron:0 30 3 * * *}")
+    public int reconcile() {
+        int repaired = 0;
+        Long afterId = 0L;
+        List<ParticipantCount> counts;
+        do {
+            counts = this.sessionRepository.findParticipantCounts(afterId, this.batchSize);
+            List<Long> drifted = counts.stream()
+                    .filter(count -> count.getRecorded() != count.getActual())
+                    .map(ParticipantCount::getSessionId)
+                    .toList();
+            if (!drifted.isEmpty()) {
+                repaired += this.sessionService.recountParticipants(drifted);
+            }
+            if (!counts.isEmpty()) {
+                afterId = counts.get(counts.size() - 1).getSessionId();
+            }
+        } while (counts.size() == this.batchSize);
+
+        if (repaired > 0) {
+            log.warn("Repaired the participant count of {} sessions", repaired);
+        }
+        return repaired;
+    }
+}
@@ -0,0 +1,25 @@
+package com.openclassrooms.starterjwt.services;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a write again in a new transaction when it lost a race for a row: a deadlock, a lock wait timeout or a
+ * stale version. The pauses grow exponentially and are randomized, so that the users who collided at class
+ * opening do not collide again on their next attempt.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(retryFor = ConcurrencyFailureException.class,
+        maxAttemptsExpression = "${application.session.retry.max-attempts:4}",
+        backoff = @Backoff(delayExpression = "${application.session.retry.delay:10}", multiplier = 2, random = true))
+public @interface RetryOnLockConflict {
+}
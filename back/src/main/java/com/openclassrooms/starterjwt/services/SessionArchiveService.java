@@ -0,0 +1,111 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.ArchivedSession;
+import com.openclassrooms.starterjwt.pagination.KeysetCursor;
+import com.openclassrooms.starterjwt.pagination.KeysetPage;
+import com.openclassrooms.starterjwt.repository.SessionArchiveRepository;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Moves past sessions and their participations out of SESSIONS and PARTICIPATE, into SESSIONS_ARCHIVE and
+ * PARTICIPATE_ARCHIVE where they can still be read, so that the tables every request works on only grow with
+ * the sessions to come.
+ */
+@Service
+public class SessionArchiveService {
+    private final SessionArchiveRepository sessionArchiveRepository;
+
+    private final SessionRepository sessionRepository;
+
+    private final WaitlistRepository waitlistRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SessionArchiveService(SessionArchiveRepository sessionArchiveRepository,
+                                 SessionRepository sessionRepository,
+                                 WaitlistRepository waitlistRepository,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.sessionArchiveRepository = sessionArchiveRepository;
+        this.sessionRepository = sessionRepository;
+        this.waitlistRepository = waitlistRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Archives up to {@code limit} of the sessions held before the cutoff, in a single transaction: a session
+     * is either still in SESSIONS or entirely in the archive.
+     *
+     * @return the number of archived sessions, below {@code limit} once none is left
+     */
+    @Transactional
+    public int archiveBefore(Date cutoff, int limit) {
+        List<Long> ids = this.sessionRepository.findIdsBefore(cutoff, Limit.of(limit));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        this.sessionArchiveRepository.copySessions(ids);
+        this.sessionArchiveRepository.copyParticipants(ids);
+        this.waitlistRepository.deleteBySessionIds(ids);
+        this.sessionRepository.removeParticipants(ids);
+        this.sessionRepository.deleteAllByIdInBatch(ids);
+
+        ids.forEach(id -> this.eventPublisher.publishEvent(SessionChangedEvent.deleted(id)));
+        return ids.size();
+    }
+
+    @Transactional(readOnly = true)
+    public ArchivedSession getById(Long id) {
+        return this.sessionArchiveRepository.findById(id).orElse(null);
+    }
+
+    /**
+     * Returns the archived sessions of the range ordered by {@code (date, id)}, page by page like
+     * {@link SessionService#findPage}.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ArchivedSession> findPage(Date from, Date to, String cursor, Integer size) {
+        int pageSize = size == null ? SessionService.DEFAULT_PAGE_SIZE : Math.min(size, SessionService.MAX_PAGE_SIZE);
+        if (pageSize < 1) {
+            throw new BadRequestException();
+        }
+        if (from != null && to != null && !from.before(to)) {
+            throw new BadRequestException();
+        }
+
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+        List<ArchivedSession> sessions = this.sessionArchiveRepository.findPage(from, to,
+                after == null ? null : after.date(),
+                after == null ? null : after.id(),
+                Limit.of(pageSize + 1));
+
+        return KeysetPage.of(sessions, pageSize, session -> new KeysetCursor(session.getDate(), session.getId()));
+    }
+
+    /**
+     * Reads the participant ids of several archived sessions at once.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<Long>> findParticipantIds(Collection<Long> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return this.sessionArchiveRepository.findParticipants(sessionIds).stream()
+                .collect(Collectors.groupingBy(SessionParticipant::getSessionId,
+                        Collectors.mapping(SessionParticipant::getUserId, Collectors.toList())));
+    }
+}
@@ -0,0 +1,54 @@
+package com.openclassrooms.starterjwt.services;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Archives the sessions held more than {@code horizon-days} ago, {@code batch-size} sessions per transaction so
+ * that the rows and locks of a single transaction stay bounded however late the job is.
+ */
+@Component
+@Log4j2
+public class SessionArchiver {
+    private final SessionArchiveService sessionArchiveService;
+
+    private final int horizonDays;
+
+    private final int batchSize;
+
+    public SessionArchiver(SessionArchiveService sessionArchiveService,
+                           @Value("${application.session.archive.horizon-days:365}") int horizonDays,
+                           @Value("${application.session.archive.batch-size:500}") int batchSize) {
+        this.sessionArchiveService = sessionArchiveService;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the number of archived sessions
+     */
+    @Scheduled(cron = "${application.session.archive.cron:0 0 4 * * *}")
+    public int archive() {
+        return archiveBefore(Date.from(Instant.now().minus(Duration.ofDays(this.horizonDays))));
+    }
+
+    public int archiveBefore(Date cutoff) {
+        int archived = 0;
+        int batch;
+        do {
+            batch = this.sessionArchiveService.archiveBefore(cutoff, this.batchSize);
+            archived += batch;
+        } while (batch == this.batchSize);
+
+        if (archived > 0) {
+            log.info("Archived {} sessions held before {}", archived, cutoff);
+        }
+        return archived;
+    }
+}
@@ -0,0 +1,24 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+
+/**
+ * Published whenever a session is created, updated or deleted, for the state derived from sessions to follow.
+ *
+ * @param sessionId the changed session
+ * @param session   its new state, {@code null} when it was deleted
+ */
+public record SessionChangedEvent(Long sessionId, Session session) {
+
+    public static SessionChangedEvent saved(Session session) {
+        return new SessionChangedEvent(session.getId(), session);
+    }
+
+    public static SessionChangedEvent deleted(Long sessionId) {
+        return new SessionChangedEvent(sessionId, null);
+    }
+
+    public boolean isDeleted() {
+        return session == null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+import static com.openclassrooms.starterjwt.repository.SessionRepository.STREAM_FETCH_SIZE;
+
+/**
+ * Reads every session with its participants for reporting. Sessions are streamed from the database and handed
+ * over chunk by chunk, each chunk with the participant ids read in one query, then detached: memory use does
+ * not depend on how many sessions there are.
+ */
+@Service
+public class SessionExportService {
+    private final SessionRepository sessionRepository;
+
+    private final SessionService sessionService;
+
+    private final EntityManager entityManager;
+
+    public SessionExportService(SessionRepository sessionRepository,
+                                SessionService sessionService,
+                                EntityManager entityManager) {
+        this.sessionRepository = sessionRepository;
+        this.sessionService = sessionService;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Hands all the sessions, ordered by {@code (date, id)}, to {@code chunkConsumer} together with their
+     * participant ids. The sessions of a chunk are detached as soon as the consumer returns and must not be
+     * kept.
+     */
+    @Transactional(readOnly = true)
+    public void exportSessions(BiConsumer<List<Session>, Map<Long, List<Long>>> chunkConsumer) {
+        try (Stream<Session> sessions = this.sessionRepository.streamAll()) {
+            List<Session> chunk = new ArrayList<>(STREAM_FETCH_SIZE);
+            Iterator<Session> iterator = sessions.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == STREAM_FETCH_SIZE) {
+                    emit(chunk, chunkConsumer);
+                }
+            }
+            emit(chunk, chunkConsumer);
+        }
+    }
+
+    private void emit(List<Session> chunk, BiConsumer<List<Session>, Map<Long, List<Long>>> chunkConsumer) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        var participantIds = this.sessionService.findParticipantIds(chunk.stream().map(Session::getId).toList());
+        chunkConsumer.accept(chunk, participantIds);
+        chunk.clear();
+        this.entityManager.clear();
+    }
+}
@@ -0,0 +1,118 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.schedule.TeacherSlotIndex;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates sessions in bulk, e.g. to seed a whole term. Sessions are persisted in chunks: each chunk resolves
+ * its teachers with one query and is flushed as JDBC batches, then detached so that the persistence context
+ * never grows past a chunk. A session whose teacher already gives another session at that time is skipped and
+ * reported, the others are still imported.
+ */
+@Service
+public class SessionImportService {
+    private final SessionRepository sessionRepository;
+
+    private final TeacherRepository teacherRepository;
+
+    private final TeacherSlotIndex teacherSlotIndex;
+
+    private final EntityManager entityManager;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int batchSize;
+
+    public SessionImportService(SessionRepository sessionRepository,
+                                TeacherRepository teacherRepository,
+                                TeacherSlotIndex teacherSlotIndex,
+                                EntityManager entityManager,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${application.session.import.batch-size:500}") int batchSize) {
+        this.sessionRepository = sessionRepository;
+        this.teacherRepository = teacherRepository;
+        this.teacherSlotIndex = teacherSlotIndex;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports every session of the iterator in a single transaction: either all of them are created, but for
+     * those double-booking their teacher, or, when one references an unknown teacher, none is.
+     *
+     * @throws ConflictException when a teacher got booked by a concurrent change while the sessions were checked
+     */
+    @Transactional
+    public ImportResult importSessions(Iterator<Session> sessions) {
+        int imported = 0;
+        int position = 0;
+        List<Integer> conflicts = new ArrayList<>();
+        List<Session> chunk = new ArrayList<>(batchSize);
+        while (sessions.hasNext()) {
+            chunk.add(sessions.next());
+            if (chunk.size() == batchSize) {
+                imported += persist(chunk, position, conflicts);
+                position += chunk.size();
+                chunk.clear();
+            }
+        }
+        imported += persist(chunk, position, conflicts);
+        return new ImportResult(imported, conflicts);
+    }
+
+    private int persist(List<Session> chunk, int firstPosition, List<Integer> conflicts) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> teacherIds = chunk.stream()
+                .map(Session::getTeacher)
+                .filter(Objects::nonNull)
+                .map(Teacher::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Teacher> teachers = this.teacherRepository.findAllById(teacherIds).stream()
+                .collect(Collectors.toMap(Teacher::getId, Function.identity()));
+        if (teachers.size() != teacherIds.size()) {
+            throw new BadRequestException();
+        }
+
+        List<Session> saved = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Session session = chunk.get(i);
+            session.setId(null);
+            session.setUsers(new ArrayList<>());
+            session.setParticipantCount(0);
+            if (session.getTeacher() != null) {
+                session.setTeacher(teachers.get(session.getTeacher().getId()));
+            }
+            if (this.teacherSlotIndex.isBooked(session)) {
+                conflicts.add(firstPosition + i);
+                continue;
+            }
+            // the id comes from the sequence on save, the insert itself waits for the flush of the chunk
+            this.sessionRepository.save(session);
+            this.teacherSlotIndex.reserve(session);
+            saved.add(session);
+        }
+        saved.forEach(session -> this.eventPublisher.publishEvent(SessionChangedEvent.saved(session)));
+        this.entityManager.flush();
+        this.entityManager.clear();
+
+        return saved.size();
+    }
+}
@@ -0,0 +1,9 @@
+package com.openclassrooms.starterjwt.services;
+
+/**
+ * Published whenever users join or leave a session.
+ *
+ * @param sessionId the session whose participants changed
+ */
+public record SessionParticipantsChangedEvent(Long sessionId) {
+}
@@ -0,0 +1,39 @@
+package com.openclassrooms.starterjwt.services;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the horizon of the recurring series forward every night, one series per transaction: a series that
+ * fails is logged and retried the next night, without rolling back nor holding up the others.
+ */
+@Component
+@Log4j2
+public class SessionSeriesMaterializer {
+    private final SessionSeriesService sessionSeriesService;
+
+    public SessionSeriesMaterializer(SessionSeriesService sessionSeriesService) {
+        this.sessionSeriesService = sessionSeriesService;
+    }
+
+    /**
+     * @return the number of created sessions
+     */
+    @Scheduled(cron = "${application.session.series.materialize-cron:0 0 3 * * *}")
+    public int extendHorizon() {
+        int created = 0;
+        int failed = 0;
+        for (Long id : this.sessionSeriesService.findMaterializable()) {
+            try {
+                created += this.sessionSeriesService.extendHorizon(id);
+            } catch (RuntimeException e) {
+                failed++;
+                log.error("Failed to create the sessions of series {}", id, e);
+            }
+        }
+
+        log.info("Created {} sessions of recurring series, {} series failed", created, failed);
+        return created;
+    }
+}
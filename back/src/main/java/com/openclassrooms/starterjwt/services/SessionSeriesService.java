@@ -0,0 +1,132 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.SessionSeries;
+import com.openclassrooms.starterjwt.recurrence.WeeklyRecurrence;
+import com.openclassrooms.starterjwt.repository.SessionSeriesRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Creates the sessions of a {@link SessionSeries} through {@link SessionImportService}, so that the occurrences
+ * of a series are inserted as JDBC batches in one transaction. Only the occurrences of the next
+ * {@code horizon-days} days are created up front, the later ones by {@link SessionSeriesMaterializer} as the
+ * horizon moves on. An occurrence whose teacher already gives another session at that time is skipped.
+ */
+@Service
+@Log4j2
+public class SessionSeriesService {
+    public static final Period MAX_DURATION = Period.ofYears(5);
+
+    private final SessionSeriesRepository sessionSeriesRepository;
+
+    private final SessionImportService sessionImportService;
+
+    private final int horizonDays;
+
+    public SessionSeriesService(SessionSeriesRepository sessionSeriesRepository,
+                                SessionImportService sessionImportService,
+                                @Value("${application.session.series.horizon-days:56}") int horizonDays) {
+        this.sessionSeriesRepository = sessionSeriesRepository;
+        this.sessionImportService = sessionImportService;
+        this.horizonDays = horizonDays;
+    }
+
+    public SessionSeries getById(Long id) {
+        return this.sessionSeriesRepository.findById(id).orElse(null);
+    }
+
+    /**
+     * Saves the series and creates its occurrences up to the horizon.
+     *
+     * @throws BadRequestException when the rule has no occurrence day, ends before it starts or lasts too long,
+     *                             or the time zone is unknown
+     */
+    @Transactional
+    public SessionSeries create(SessionSeries series) {
+        WeeklyRecurrence recurrence;
+        try {
+            ZoneId.of(series.getZoneId());
+            recurrence = series.recurrence();
+        } catch (DateTimeException | IllegalArgumentException e) {
+            throw new BadRequestException();
+        }
+        if (recurrence.until().isAfter(recurrence.start().plus(MAX_DURATION))) {
+            throw new BadRequestException();
+        }
+
+        series.setId(null);
+        series.setMaterializedUntil(series.getStartDate().minusDays(1));
+        SessionSeries created = this.sessionSeriesRepository.save(series);
+        materialize(created);
+        return created;
+    }
+
+    /**
+     * @return the ids of the series whose horizon has occurrences left to create
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findMaterializable() {
+        // the latest horizon of all time zones, each series then stops at its own
+        LocalDate horizon = LocalDate.now(ZoneOffset.MIN).plusDays(this.horizonDays + 1L);
+        return this.sessionSeriesRepository.findIdsMaterializableBefore(horizon);
+    }
+
+    /**
+     * Moves the horizon of a series forward, creating the occurrences that came within it. The series row stays
+     * locked until the commit, so another instance running the same job waits and then finds nothing left to do.
+     *
+     * @return the number of created sessions, 0 when the series no longer exists
+     */
+    @Transactional
+    public int extendHorizon(Long id) {
+        return this.sessionSeriesRepository.findByIdForUpdate(id)
+                .map(this::materialize)
+                .orElse(0);
+    }
+
+    private int materialize(SessionSeries series) {
+        ZoneId zone = ZoneId.of(series.getZoneId());
+        LocalDate horizon = LocalDate.now(zone).plusDays(this.horizonDays);
+        LocalDate from = series.getMaterializedUntil().plusDays(1);
+        LocalDate to = horizon.isBefore(series.getUntil()) ? horizon : series.getUntil();
+        if (to.isBefore(from)) {
+            return 0;
+        }
+
+        Iterator<Session> occurrences = series.recurrence().datesBetween(from, to).stream()
+                .map(day -> Session.builder()
+                        .name(series.getName())
+                        .description(series.getDescription())
+                        .teacher(series.getTeacher())
+                        .capacity(series.getCapacity())
+                        .duration(series.getDuration())
+                        .date(Date.from(day.atTime(series.getStartTime()).atZone(zone).toInstant()))
+                        .series(series)
+                        .users(new ArrayList<>())
+                        .build())
+                .iterator();
+        ImportResult result = this.sessionImportService.importSessions(occurrences);
+        if (!result.conflicts().isEmpty()) {
+            log.warn("Skipped {} occurrences of series {}, its teacher gives another session at that time",
+                    result.conflicts().size(), series.getId());
+        }
+
+        series.setMaterializedUntil(to);
+        this.sessionSeriesRepository.save(series);
+        return result.imported();
+    }
+}
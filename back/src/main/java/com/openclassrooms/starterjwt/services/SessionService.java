@@ -1,78 +1,411 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.exception.PreconditionFailedException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.pagination.KeysetCursor;
+import com.openclassrooms.starterjwt.pagination.KeysetPage;
+import com.openclassrooms.starterjwt.repository.SessionFilter;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSeats;
+import com.openclassrooms.starterjwt.repository.TableVersion;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.schedule.TeacherSlotIndex;
+import com.openclassrooms.starterjwt.search.SessionSearchIndex;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class SessionService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_ENROLLMENT_SIZE = 1000;
+    public static final String CACHE = "sessions";
+
     private final SessionRepository sessionRepository;
 
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final SessionSearchIndex sessionSearchIndex;
+
+    private final TeacherSlotIndex teacherSlotIndex;
+
+    private final EntityCacheEvictor entityCacheEvictor;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SessionService(SessionRepository sessionRepository,
+                          UserRepository userRepository,
+                          SessionSearchIndex sessionSearchIndex,
+                          TeacherSlotIndex teacherSlotIndex,
+                          EntityCacheEvictor entityCacheEvictor,
+                          PlatformTransactionManager transactionManager,
+                          ApplicationEventPublisher eventPublisher) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.sessionSearchIndex = sessionSearchIndex;
+        this.teacherSlotIndex = teacherSlotIndex;
+        this.entityCacheEvictor = entityCacheEvictor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
     }
 
+    /**
+     * @throws ConflictException when the teacher already gives a session at that time
+     */
+    @Transactional
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        // the id is always generated, a versioned entity given with one would be taken for a detached session
+        session.setId(null);
+        countParticipants(session);
+        Session created = this.sessionRepository.save(session);
+        // the slot is keyed by the generated id, the insert is rolled back if the teacher is already booked
+        this.teacherSlotIndex.reserve(created);
+        this.eventPublisher.publishEvent(SessionChangedEvent.saved(created));
+        return created;
     }
 
     public void delete(Long id) {
         this.sessionRepository.deleteById(id);
+        this.eventPublisher.publishEvent(SessionChangedEvent.deleted(id));
     }
 
+    @Transactional(readOnly = true)
     public List<Session> findAll() {
         return this.sessionRepository.findAll();
     }
 
+    /**
+     * Changes whenever a session is created, updated or deleted, or its participants change.
+     */
+    @Transactional(readOnly = true)
+    public TableVersion getVersion() {
+        return this.sessionRepository.findVersion();
+    }
+
+    /**
+     * Returns the sessions matching the filter, ordered by {@code (date, id)}, that come right after the given
+     * cursor. Pages are read with a keyset predicate instead of an OFFSET, so every page costs the same to fetch.
+     * The cursor only holds a position: the next pages must be asked with the same filter.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<Session> findPage(SessionFilter filter, String cursor, Integer size) {
+        int pageSize = checkPage(filter, size);
+
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+        // one extra row tells whether there is a next page without a count query
+        List<Session> sessions = this.sessionRepository.findPage(filter, after, pageSize + 1);
+
+        return KeysetPage.of(sessions, pageSize, session -> new KeysetCursor(session.getDate(), session.getId()));
+    }
+
+    /**
+     * Same page as {@link #findPage}, for listings that only show how many seats are booked: the denormalized
+     * participant count is read from the session row, the PARTICIPATE table is never touched.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<SessionSummaryDto> findSummaryPage(SessionFilter filter, String cursor, Integer size) {
+        int pageSize = checkPage(filter, size);
+
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+        List<SessionSummaryDto> summaries = this.sessionRepository.findSummaryPage(filter, after, pageSize + 1);
+
+        return KeysetPage.of(summaries, pageSize, summary -> new KeysetCursor(summary.getDate(), summary.getId()));
+    }
+
+    /**
+     * Sets the participant count of the given sessions back to their number of PARTICIPATE rows.
+     *
+     * @return the number of sessions whose count was wrong
+     */
+    @Transactional
+    public int recountParticipants(Collection<Long> ids) {
+        int recounted = this.sessionRepository.recountParticipants(ids);
+        if (recounted > 0) {
+            ids.forEach(id -> this.eventPublisher.publishEvent(new SessionParticipantsChangedEvent(id)));
+        }
+        return recounted;
+    }
+
+    /**
+     * Reads the participant ids of several sessions at once, straight from the join table and without
+     * loading any {@link User}.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<Long>> findParticipantIds(Collection<Long> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return this.sessionRepository.findParticipants(sessionIds).stream()
+                .collect(Collectors.groupingBy(SessionParticipant::getSessionId,
+                        Collectors.mapping(SessionParticipant::getUserId, Collectors.toList())));
+    }
+
+    /**
+     * Searches the name and description of the sessions through the in-memory {@link SessionSearchIndex}, then
+     * loads the matches with a single query.
+     *
+     * @return the matching sessions, the best match first
+     */
+    public List<Session> search(String query, Integer size) {
+        int limit = size == null ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        if (query == null || query.isBlank() || limit < 1) {
+            throw new BadRequestException();
+        }
+
+        List<Long> ids = this.sessionSearchIndex.search(query, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Session> sessions = this.sessionRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Session::getId, Function.identity()));
+        return ids.stream()
+                .map(sessions::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Served from the {@value #CACHE} cache, which {@link EntityCacheEvictor} keeps in step with the writes. The
+     * session returned is shared and detached: it must not be modified nor have its participants read. On a miss
+     * it is read in a read-write transaction, which goes to the primary: a replica behind on the last write would
+     * get its stale copy cached for everyone.
+     */
     public Session getById(Long id) {
-        return this.sessionRepository.findById(id).orElse(null);
+        return this.entityCacheEvictor.getSession(id, () -> this.transactionTemplate.execute(
+                transaction -> this.sessionRepository.findById(id).orElse(null)));
     }
 
-    public Session update(Long id, Session session) {
+    /**
+     * Replaces the stored session. The update is made against the version read here, so a concurrent change
+     * committed in between fails the flush with an {@link org.springframework.dao.OptimisticLockingFailureException}.
+     *
+     * @param expectedVersion the version the caller based its change on, {@code null} to skip the check
+     * @throws PreconditionFailedException when the session is no longer at the expected version
+     * @throws ConflictException when the teacher already gives another session at that time
+     */
+    @Transactional
+    public Session update(Long id, Session session, Long expectedVersion) {
+        Session current = this.sessionRepository.findById(id).orElseThrow(NotFoundException::new);
+        checkVersion(current, expectedVersion);
+
         session.setId(id);
-        return this.sessionRepository.save(session);
+        session.setVersion(current.getVersion());
+        session.setSeries(current.getSeries());
+        countParticipants(session);
+        this.teacherSlotIndex.reserve(session);
+        Session updated = this.sessionRepository.save(session);
+        this.eventPublisher.publishEvent(SessionChangedEvent.saved(updated));
+        return updated;
     }
 
+    /**
+     * Applies the non-null fields of {@code changes} to the stored session. The session is updated with
+     * dynamic SQL, so only the columns that really changed are written, and its participants are neither
+     * loaded nor rewritten unless {@code changes} carries a new list of them.
+     *
+     * @param expectedVersion the version the caller based its change on, {@code null} to skip the check
+     * @throws PreconditionFailedException when the session is no longer at the expected version
+     * @throws ConflictException when the teacher already gives another session at that time
+     */
+    @Transactional
+    public Session patch(Long id, Session changes, Long expectedVersion) {
+        Session session = this.sessionRepository.findById(id).orElseThrow(NotFoundException::new);
+        checkVersion(session, expectedVersion);
+
+        if (changes.getName() != null) {
+            session.setName(changes.getName());
+        }
+        if (changes.getDate() != null) {
+            session.setDate(changes.getDate());
+        }
+        if (changes.getDescription() != null) {
+            session.setDescription(changes.getDescription());
+        }
+        if (changes.getTeacher() != null) {
+            session.setTeacher(changes.getTeacher());
+        }
+        if (changes.getDuration() != null) {
+            session.setDuration(changes.getDuration());
+        }
+        if (changes.getCapacity() != null) {
+            session.setCapacity(changes.getCapacity());
+        }
+
+        if (changes.getUsers() != null) {
+            session.setUsers(changes.getUsers());
+            countParticipants(session);
+        } else if (session.getCapacity() != null && session.getParticipantCount() > session.getCapacity()) {
+            throw new BadRequestException();
+        }
+        if (changes.getDate() != null || changes.getTeacher() != null || changes.getDuration() != null) {
+            this.teacherSlotIndex.reserve(session);
+        }
+
+        this.eventPublisher.publishEvent(SessionChangedEvent.saved(session));
+        return session;
+    }
+
+    /**
+     * Reserves a seat then inserts a single PARTICIPATE row. The seat is taken by a conditional update so
+     * that a crowd of users joining at once never oversells the session, and the session row stays locked
+     * only for the insert that follows. A second participation of the same user is rejected by the unique
+     * {@code (session_id, user_id)} constraint, which also gives the seat back by rolling back.
+     */
+    @RetryOnLockConflict
+    @Transactional
     public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        User user = this.userRepository.findById(userId).orElse(null);
-        if (session == null || user == null) {
+        if (!this.userRepository.existsById(userId)) {
             throw new NotFoundException();
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
+        if (this.sessionRepository.reserveSeats(id, 1) == 0) {
+            if (!this.sessionRepository.existsById(id)) {
+                throw new NotFoundException();
+            }
+            throw new ConflictException();
+        }
+
+        try {
+            this.sessionRepository.addParticipant(id, userId);
+        } catch (DataIntegrityViolationException e) {
             throw new BadRequestException();
         }
+        this.eventPublisher.publishEvent(new SessionParticipantsChangedEvent(id));
+    }
 
-        session.getUsers().add(user);
+    @RetryOnLockConflict
+    @Transactional
+    public void noLongerParticipate(Long id, Long userId) {
+        if (!this.sessionRepository.existsById(id)) {
+            throw new NotFoundException();
+        }
 
-        this.sessionRepository.save(session);
+        int deleted = this.sessionRepository.removeParticipant(id, userId);
+        if (deleted == 0) {
+            throw new BadRequestException();
+        }
+        this.sessionRepository.releaseSeats(id, deleted);
+        this.eventPublisher.publishEvent(new SessionParticipantsChangedEvent(id));
     }
 
-    public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        if (session == null) {
+    /**
+     * Enrolls a group of users at once. Users are validated with a single query, the seats are reserved
+     * together and the missing PARTICIPATE rows are inserted as one JDBC batch. When the session cannot
+     * take everyone, the first users of the list get the remaining seats.
+     *
+     * @return the outcome for each distinct user id, in the order they were given
+     */
+    @RetryOnLockConflict
+    @Transactional
+    public Map<Long, EnrollmentStatus> enroll(Long id, List<Long> userIds) {
+        Set<Long> requested = new LinkedHashSet<>(userIds);
+        if (requested.isEmpty() || requested.size() > MAX_ENROLLMENT_SIZE || requested.contains(null)) {
+            throw new BadRequestException();
+        }
+        if (!this.sessionRepository.existsById(id)) {
             throw new NotFoundException();
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(!alreadyParticipate) {
+        Set<Long> knownUsers = this.userRepository.findAllById(requested).stream()
+                .map(User::getId)
+                .collect(Collectors.toSet());
+        Set<Long> participants = this.sessionRepository.findParticipants(List.of(id)).stream()
+                .map(SessionParticipant::getUserId)
+                .collect(Collectors.toSet());
+
+        Map<Long, EnrollmentStatus> report = new LinkedHashMap<>();
+        List<Long> candidates = new ArrayList<>();
+        for (Long userId : requested) {
+            if (!knownUsers.contains(userId)) {
+                report.put(userId, EnrollmentStatus.USER_NOT_FOUND);
+            } else if (participants.contains(userId)) {
+                report.put(userId, EnrollmentStatus.ALREADY_PARTICIPATING);
+            } else {
+                report.put(userId, EnrollmentStatus.SESSION_FULL);
+                candidates.add(userId);
+            }
+        }
+
+        List<Long> enrolled = candidates.subList(0, reserveUpTo(id, candidates.size()));
+        try {
+            this.sessionRepository.addParticipants(id, enrolled);
+        } catch (DataIntegrityViolationException e) {
+            // one of the users joined on their own in the meantime
+            throw new ConflictException();
+        }
+        enrolled.forEach(userId -> report.put(userId, EnrollmentStatus.ENROLLED));
+        if (!enrolled.isEmpty()) {
+            this.eventPublisher.publishEvent(new SessionParticipantsChangedEvent(id));
+        }
+
+        return report;
+    }
+
+    /**
+     * Reserves as many of the wanted seats as the session still has. The session row is locked while its
+     * free seats are read, so the reservation that follows cannot be refused for lack of seats.
+     *
+     * @throws NotFoundException when the session was deleted in the meantime
+     */
+    private int reserveUpTo(Long id, int wanted) {
+        SessionSeats seats = this.sessionRepository.findSeatsForUpdate(id).orElseThrow(NotFoundException::new);
+        int reserved = seats.freeSeats(wanted);
+        if (reserved <= 0) {
+            return 0;
+        }
+        if (this.sessionRepository.reserveSeats(id, reserved) == 0) {
+            throw new ConflictException();
+        }
+        return reserved;
+    }
+
+    private static int checkPage(SessionFilter filter, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        if (pageSize < 1) {
             throw new BadRequestException();
         }
+        if (filter.from() != null && filter.to() != null && !filter.from().before(filter.to())) {
+            throw new BadRequestException();
+        }
+        return pageSize;
+    }
 
-        session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
+    private static void checkVersion(Session session, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(session.getVersion())) {
+            throw new PreconditionFailedException();
+        }
+    }
 
-        this.sessionRepository.save(session);
+    private static void countParticipants(Session session) {
+        int participants = session.getUsers() == null ? 0 : session.getUsers().size();
+        if (session.getCapacity() != null && participants > session.getCapacity()) {
+            throw new BadRequestException();
+        }
+        session.setParticipantCount(participants);
     }
 }
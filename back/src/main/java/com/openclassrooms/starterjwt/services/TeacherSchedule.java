@@ -0,0 +1,43 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.dto.WeeklyWorkloadDto;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sessions a teacher gives over consecutive weeks, and the number of sessions and attendees of each week.
+ */
+public record TeacherSchedule(List<SessionSummaryDto> sessions,
+                              List<WeeklyWorkloadDto> weeks,
+                              int totalSessions,
+                              long totalAttendees) {
+
+    /**
+     * Folds the sessions into their weeks. Weeks without any session are listed too.
+     *
+     * @param sessions  sessions held within the weeks
+     * @param firstWeek the Monday of the first week
+     */
+    public static TeacherSchedule of(List<SessionSummaryDto> sessions, LocalDate firstWeek, int weekCount, ZoneId zone) {
+        List<WeeklyWorkloadDto> weeks = new ArrayList<>(weekCount);
+        for (int i = 0; i < weekCount; i++) {
+            weeks.add(new WeeklyWorkloadDto(firstWeek.plusWeeks(i), 0, 0));
+        }
+
+        long totalAttendees = 0;
+        for (SessionSummaryDto session : sessions) {
+            LocalDate day = session.getDate().toInstant().atZone(zone).toLocalDate();
+            WeeklyWorkloadDto week = weeks.get((int) ChronoUnit.WEEKS.between(firstWeek, day));
+            week.setSessions(week.getSessions() + 1);
+            week.setAttendees(week.getAttendees() + session.getParticipantCount());
+            totalAttendees += session.getParticipantCount();
+        }
+
+        return new TeacherSchedule(sessions, weeks, sessions.size(), totalAttendees);
+    }
+}
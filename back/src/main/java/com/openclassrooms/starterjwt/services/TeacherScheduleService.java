@@ -0,0 +1,49 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Date;
+import java.util.List;
+
+@Service
+public class TeacherScheduleService {
+    public static final int DEFAULT_WEEKS = 4;
+    public static final int MAX_WEEKS = 26;
+
+    private final SessionRepository sessionRepository;
+
+    public TeacherScheduleService(SessionRepository sessionRepository) {
+        this.sessionRepository = sessionRepository;
+    }
+
+    /**
+     * Returns the sessions of the teacher from the given instant to the end of the last week, weeks starting on
+     * Monday in the given zone. The sessions are read with one range scan of the {@code (teacher_id, date)}
+     * index, and their attendees taken from the participant count of each row, so PARTICIPATE is never read.
+     *
+     * @param weeks the number of weeks, the current one included, {@link #DEFAULT_WEEKS} when {@code null}
+     */
+    @Transactional(readOnly = true)
+    public TeacherSchedule getSchedule(Long teacherId, Instant from, Integer weeks, ZoneId zone) {
+        int weekCount = weeks == null ? DEFAULT_WEEKS : weeks;
+        if (weekCount < 1 || weekCount > MAX_WEEKS) {
+            throw new BadRequestException();
+        }
+
+        LocalDate firstWeek = from.atZone(zone).toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        Instant to = firstWeek.plusWeeks(weekCount).atStartOfDay(zone).toInstant();
+        List<SessionSummaryDto> sessions = this.sessionRepository.findTeacherSummaries(
+                teacherId, Date.from(from), Date.from(to));
+
+        return TeacherSchedule.of(sessions, firstWeek, weekCount, zone);
+    }
+}
@@ -1,8 +1,11 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.datasource.ReadWriteRoutingDataSource;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.TableVersion;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -14,10 +17,20 @@ public class TeacherService {
         this.teacherRepository = teacherRepository;
     }
 
+    @Transactional(readOnly = true, label = ReadWriteRoutingDataSource.PRIMARY)
     public List<Teacher> findAll() {
         return this.teacherRepository.findAll();
     }
 
+    @Transactional(readOnly = true, label = ReadWriteRoutingDataSource.PRIMARY)
+    public TableVersion getVersion() {
+        return this.teacherRepository.findVersion();
+    }
+
+    /**
+     * Served from the {@code teacher} second-level cache region once the teacher has been read.
+     */
+    @Transactional(readOnly = true, label = ReadWriteRoutingDataSource.PRIMARY)
     public Teacher findById(Long id) {
         return this.teacherRepository.findById(id).orElse(null);
     }
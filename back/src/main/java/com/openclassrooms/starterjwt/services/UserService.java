@@ -1,22 +1,39 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.datasource.ReadWriteRoutingDataSource;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 @Service
 public class UserService {
+    public static final String CACHE = "users";
+
     private final UserRepository userRepository;
 
     public UserService(UserRepository userRepository) {
         this.userRepository = userRepository;
     }
 
+    @CacheEvict(cacheNames = CACHE, key = "#id")
     public void delete(Long id) {
         this.userRepository.deleteById(id);
     }
 
+    @Cacheable(cacheNames = CACHE, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true, label = ReadWriteRoutingDataSource.PRIMARY)
     public User findById(Long id) {
         return this.userRepository.findById(id).orElse(null);
     }
+
+    @Transactional(readOnly = true)
+    public List<User> findAllById(Collection<Long> ids) {
+        return this.userRepository.findAllById(ids);
+    }
 }
@@ -0,0 +1,9 @@
+package com.openclassrooms.starterjwt.services;
+
+/**
+ * Published whenever a user joins the waitlist of a session.
+ *
+ * @param sessionId the session whose waitlist changed
+ */
+public record WaitlistChangedEvent(Long sessionId) {
+}
@@ -0,0 +1,93 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Promotes waiting users in the background. A committed change that may free a seat only marks its session,
+ * so the cancellation returns at once; the marked sessions are then promoted together every
+ * {@code promote-delay-ms}, a burst of cancellations of the same session giving a single promotion.
+ */
+@Component
+@Log4j2
+public class WaitlistPromoter {
+    private final Set<Long> pendingSessionIds = ConcurrentHashMap.newKeySet();
+
+    private final WaitlistService waitlistService;
+
+    private final WaitlistRepository waitlistRepository;
+
+    private final int batchSize;
+
+    public WaitlistPromoter(WaitlistService waitlistService,
+                            WaitlistRepository waitlistRepository,
+                            @Value("${application.session.waitlist.batch-size:200}") int batchSize) {
+        this.waitlistService = waitlistService;
+        this.waitlistRepository = waitlistRepository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Seats may have been freed while the application was down.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void schedulePendingWaitlists() {
+        this.pendingSessionIds.addAll(this.waitlistRepository.findSessionIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionParticipantsChanged(SessionParticipantsChangedEvent event) {
+        this.pendingSessionIds.add(event.sessionId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSessionChanged(SessionChangedEvent event) {
+        if (!event.isDeleted()) {
+            this.pendingSessionIds.add(event.sessionId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWaitlistChanged(WaitlistChangedEvent event) {
+        this.pendingSessionIds.add(event.sessionId());
+    }
+
+    /**
+     * Promotes the users of up to {@code batch-size} marked sessions in one transaction. The sessions are
+     * marked again when it fails, to be retried on the next run.
+     *
+     * @return the number of promoted users
+     */
+    @Scheduled(fixedDelayString = "${application.session.waitlist.promote-delay-ms:500}")
+    public int promotePending() {
+        List<Long> sessionIds = new ArrayList<>();
+        Iterator<Long> pending = this.pendingSessionIds.iterator();
+        while (pending.hasNext() && sessionIds.size() < this.batchSize) {
+            sessionIds.add(pending.next());
+            pending.remove();
+        }
+        if (sessionIds.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            return this.waitlistService.promote(sessionIds);
+        } catch (RuntimeException e) {
+            log.warn("Failed to promote the waitlists of sessions {}", sessionIds, e);
+            this.pendingSessionIds.addAll(sessionIds);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSeats;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * First come, first served waitlists of the sessions. Users are moved from the waitlist to the participants by
+ * {@link WaitlistPromoter}, outside of the request that freed the seat.
+ */
+@Service
+public class WaitlistService {
+    public static final int MAX_PROMOTIONS_PER_SESSION = 100;
+
+    private final WaitlistRepository waitlistRepository;
+
+    private final SessionRepository sessionRepository;
+
+    private final UserRepository userRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public WaitlistService(WaitlistRepository waitlistRepository,
+                           SessionRepository sessionRepository,
+                           UserRepository userRepository,
+                           ApplicationEventPublisher eventPublisher) {
+        this.waitlistRepository = waitlistRepository;
+        this.sessionRepository = sessionRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Puts the user at the end of the waitlist of the session. A user who already participates or waits is
+     * rejected, the latter by the unique {@code (session_id, user_id)} constraint.
+     */
+    @Transactional
+    public void join(Long id, Long userId) {
+        if (!this.sessionRepository.existsById(id) || !this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
+        boolean participating = this.sessionRepository.findParticipants(List.of(id)).stream()
+                .anyMatch(participant -> participant.getUserId().equals(userId));
+        if (participating) {
+            throw new BadRequestException();
+        }
+
+        try {
+            this.waitlistRepository.saveAndFlush(WaitlistEntry.builder().sessionId(id).userId(userId).build());
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException();
+        }
+        this.eventPublisher.publishEvent(new WaitlistChangedEvent(id));
+    }
+
+    @Transactional
+    public void leave(Long id, Long userId) {
+        if (this.waitlistRepository.deleteUsers(id, List.of(userId)) == 0) {
+            throw new NotFoundException();
+        }
+    }
+
+    /**
+     * @return the ids of the users waiting for the session, the first in line first
+     */
+    public List<Long> findUserIds(Long id) {
+        if (!this.sessionRepository.existsById(id)) {
+            throw new NotFoundException();
+        }
+        return this.waitlistRepository.findUserIds(id, Limit.unlimited());
+    }
+
+    /**
+     * Gives the free seats of the sessions to the first users of their waitlists, all in one transaction: the
+     * row of each session is locked while its free seats are counted, the seats are reserved with a single
+     * update and its new PARTICIPATE rows are inserted as one JDBC batch.
+     *
+     * @return the number of promoted users
+     */
+    @RetryOnLockConflict
+    @Transactional
+    public int promote(Collection<Long> sessionIds) {
+        int promoted = 0;
+        for (Long sessionId : sessionIds) {
+            promoted += promote(sessionId);
+        }
+        return promoted;
+    }
+
+    private int promote(Long sessionId) {
+        List<Long> waiting = this.waitlistRepository.findUserIds(sessionId, Limit.of(MAX_PROMOTIONS_PER_SESSION));
+        if (waiting.isEmpty()) {
+            return 0;
+        }
+        // the row stays locked until commit, so the seats counted here are still free when they are reserved
+        Optional<SessionSeats> freeSeats = this.sessionRepository.findSeatsForUpdate(sessionId);
+        if (freeSeats.isEmpty()) {
+            this.waitlistRepository.deleteBySessionId(sessionId);
+            return 0;
+        }
+        int seats = freeSeats.get().freeSeats(waiting.size());
+        if (seats <= 0) {
+            return 0;
+        }
+
+        List<Long> served = waiting.subList(0, seats);
+        // users who joined on their own in the meantime, or were deleted, leave the waitlist without a seat
+        Set<Long> participants = this.sessionRepository.findParticipants(List.of(sessionId)).stream()
+                .map(SessionParticipant::getUserId)
+                .collect(Collectors.toSet());
+        Set<Long> knownUsers = this.userRepository.findAllById(served).stream()
+                .map(User::getId)
+                .collect(Collectors.toSet());
+        List<Long> promoted = served.stream()
+                .filter(userId -> knownUsers.contains(userId) && !participants.contains(userId))
+                .toList();
+
+        if (!promoted.isEmpty() && this.sessionRepository.reserveSeats(sessionId, promoted.size()) == 0) {
+            throw new ConflictException();
+        }
+        this.waitlistRepository.deleteUsers(sessionId, served);
+        this.sessionRepository.addParticipants(sessionId, promoted);
+        if (!promoted.isEmpty()) {
+            this.eventPublisher.publishEvent(new SessionParticipantsChangedEvent(sessionId));
+        }
+        return promoted.size();
+    }
+}
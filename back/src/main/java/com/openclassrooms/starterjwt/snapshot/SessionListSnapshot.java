@@ -0,0 +1,12 @@
+package com.openclassrooms.starterjwt.snapshot;
+
+/**
+ * A page of the session list, already serialized.
+ *
+ * @param etag       version of the sessions the page was built from
+ * @param json       the page as UTF-8 JSON
+ * @param gzipped    the same bytes, gzip encoded
+ * @param nextCursor cursor of the following page, {@code null} on the last one
+ */
+public record SessionListSnapshot(String etag, byte[] json, byte[] gzipped, String nextCursor) {
+}
@@ -0,0 +1,86 @@
+package com.openclassrooms.starterjwt.snapshot;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.pagination.KeysetPage;
+import com.openclassrooms.starterjwt.repository.SessionFilter;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the pages of {@code GET /api/session} serialized, so that polls of unchanged data write cached bytes
+ * instead of mapping and serializing the sessions again. A page is rebuilt the first time it is asked after the
+ * sessions version moved on.
+ */
+@Component
+public class SessionListSnapshotCache {
+    private final SessionService sessionService;
+
+    private final SessionMapper sessionMapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<Key, SessionListSnapshot> snapshots;
+
+    public SessionListSnapshotCache(SessionService sessionService,
+                                    SessionMapper sessionMapper,
+                                    ObjectMapper objectMapper,
+                                    @Value("${application.session.snapshot.max-pages:256}") int maxPages) {
+        this.sessionService = sessionService;
+        this.sessionMapper = sessionMapper;
+        this.objectMapper = objectMapper;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxPages)
+                .build();
+    }
+
+    /**
+     * @param etag the current version of the sessions, as given by {@link SessionService#getVersion()}; it must
+     *             be read before the call so that a snapshot is never labelled newer than its content
+     */
+    public SessionListSnapshot get(String etag, SessionFilter filter, String cursor, Integer size) {
+        Key key = new Key(filter, cursor, size);
+        SessionListSnapshot snapshot = this.snapshots.getIfPresent(key);
+        if (snapshot == null || !snapshot.etag().equals(etag)) {
+            snapshot = build(etag, filter, cursor, size);
+            this.snapshots.put(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    private SessionListSnapshot build(String etag, SessionFilter filter, String cursor, Integer size) {
+        KeysetPage<Session> page = this.sessionService.findPage(filter, cursor, size);
+        var participantIds = this.sessionService.findParticipantIds(
+                page.items().stream().map(Session::getId).toList());
+
+        try {
+            byte[] json = this.objectMapper.writeValueAsBytes(this.sessionMapper.toDto(page.items(), participantIds));
+            return new SessionListSnapshot(etag, json, gzip(json), page.nextCursor());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        var out = new ByteArrayOutputStream(bytes.length / 4);
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private record Key(SessionFilter filter, String cursor, Integer size) {
+    }
+}
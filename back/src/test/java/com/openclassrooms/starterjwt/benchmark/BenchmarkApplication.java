@@ -0,0 +1,31 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.SpringBootSecurityJwtApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+
+/**
+ * Starts the application against the in-memory H2 database of the tests, quietly, for the JMH benchmarks.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String... args) {
+        String[] defaultArgs = {
+                "--server.port=0",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"
+        };
+        String[] allArgs = new String[defaultArgs.length + args.length];
+        System.arraycopy(defaultArgs, 0, allArgs, 0, defaultArgs.length);
+        System.arraycopy(args, 0, allArgs, defaultArgs.length, args.length);
+
+        return new SpringApplicationBuilder(SpringBootSecurityJwtApplication.class)
+                .properties(Map.of("jwt-secret-pass", "NjNhYWQ1OTM1MmJiMTY2NDQyZWNkOWQ2NGU3NzIxMGRjNjMwOGIwMDNlM2JhZDlj"))
+                .run(allArgs);
+    }
+}
@@ -0,0 +1,69 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request from its token: the key and parser built for every call and the token
+ * parsed twice, the way {@code AuthTokenFilter} used to do it, compared with a single parse by the shared parser
+ * and with {@link JwtUtils#verifyJwtToken} answering a token it verified before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JwtVerificationBenchmark {
+    private static final String SECRET = "NjNhYWQ1OTM1MmJiMTY2NDQyZWNkOWQ2NGU3NzIxMGRjNjMwOGIwMDNlM2JhZDlj";
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void createToken() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        jwtUtils.init();
+
+        token = Jwts.builder()
+                .subject("yoga@studio.com")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .signWith(jwtUtils.getSignInKey())
+                .compact();
+    }
+
+    @Benchmark
+    public String parseTwiceWithNewParsers() {
+        // validateJwtToken then getUserNameFromJwtToken, each building its own key and parser
+        parseWithNewParser();
+        return parseWithNewParser().getSubject();
+    }
+
+    @Benchmark
+    public String parseOnceWithSharedParser() {
+        return jwtUtils.getAllClaimsFromToken(token).getSubject();
+    }
+
+    @Benchmark
+    public String verifyCached() {
+        return jwtUtils.verifyJwtToken(token).map(Claims::getSubject).orElseThrow();
+    }
+
+    private Claims parseWithNewParser() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,77 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.services.SessionImportService;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to create a term's worth of sessions, one {@link SessionService#create} call per session compared with
+ * a single {@link SessionImportService#importSessions} call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SessionImportBenchmark {
+
+    @Param({"1000"})
+    private int numberOfSessions;
+
+    private ConfigurableApplicationContext context;
+    private SessionService sessionService;
+    private SessionImportService sessionImportService;
+    private SessionRepository sessionRepository;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start();
+        sessionService = context.getBean(SessionService.class);
+        sessionImportService = context.getBean(SessionImportService.class);
+        sessionRepository = context.getBean(SessionRepository.class);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteSessions() {
+        sessionRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public void createOneByOne() {
+        for (Session session : newSessions()) {
+            sessionService.create(session);
+        }
+    }
+
+    @Benchmark
+    public int importBatched() {
+        return sessionImportService.importSessions(newSessions().iterator()).imported();
+    }
+
+    private List<Session> newSessions() {
+        List<Session> sessions = new ArrayList<>(numberOfSessions);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < numberOfSessions; i++) {
+            sessions.add(Session.builder()
+                    .name("Session " + i)
+                    .description("Imported session " + i)
+                    .date(new Date(now + i * 3_600_000L))
+                    .build());
+        }
+        return sessions;
+    }
+}
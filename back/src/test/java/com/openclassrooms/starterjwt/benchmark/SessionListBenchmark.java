@@ -0,0 +1,81 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.pagination.KeysetPage;
+import com.openclassrooms.starterjwt.repository.SessionFilter;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.services.SessionImportService;
+import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.snapshot.SessionListSnapshotCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of answering {@code GET /api/session} for unchanged data: loading, mapping and serializing the page on
+ * every request compared with writing the bytes kept by {@link SessionListSnapshotCache}. Run with the
+ * {@code gc} profiler to compare the bytes allocated per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SessionListBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private SessionService sessionService;
+    private SessionMapper sessionMapper;
+    private ObjectMapper objectMapper;
+    private SessionListSnapshotCache sessionListSnapshotCache;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start();
+        sessionService = context.getBean(SessionService.class);
+        sessionMapper = context.getBean(SessionMapper.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        sessionListSnapshotCache = context.getBean(SessionListSnapshotCache.class);
+
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            sessions.add(Session.builder()
+                    .name("Session " + i)
+                    .description("A class focusing on breath, balance and strength, session " + i)
+                    .date(new Date(System.currentTimeMillis() + i * 3_600_000L))
+                    .build());
+        }
+        context.getBean(SessionImportService.class).importSessions(sessions.iterator());
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.getBean(SessionRepository.class).deleteAllInBatch();
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        sessionService.getVersion().toETag();
+        KeysetPage<Session> page = sessionService.findPage(SessionFilter.NONE, null, pageSize);
+        var participantIds = sessionService.findParticipantIds(page.items().stream().map(Session::getId).toList());
+        return objectMapper.writeValueAsBytes(sessionMapper.toDto(page.items(), participantIds));
+    }
+
+    @Benchmark
+    public byte[] snapshot() {
+        String etag = sessionService.getVersion().toETag();
+        return sessionListSnapshotCache.get(etag, SessionFilter.NONE, null, pageSize).json();
+    }
+}
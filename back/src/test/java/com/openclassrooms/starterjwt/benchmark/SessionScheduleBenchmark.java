@@ -0,0 +1,75 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.SessionFilter;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.services.SessionImportService;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to list the sessions of one week as the table grows: {@link SessionService#findAll} filtered in memory,
+ * the way the calendar does it today, compared with a {@link SessionService#findPage} date range query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SessionScheduleBenchmark {
+    private static final long HOUR = 3_600_000L;
+    private static final long WEEK = 7 * 24 * HOUR;
+    private static final long START = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+
+    @Param({"1000", "10000", "100000"})
+    private int numberOfSessions;
+
+    private ConfigurableApplicationContext context;
+    private SessionService sessionService;
+    private SessionFilter week;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start();
+        sessionService = context.getBean(SessionService.class);
+
+        // one session every 4 hours, the week asked for sits in the middle of the table
+        List<Session> sessions = new ArrayList<>(numberOfSessions);
+        for (int i = 0; i < numberOfSessions; i++) {
+            sessions.add(Session.builder()
+                    .name("Session " + i)
+                    .description("Scheduled session " + i)
+                    .date(new Date(START + i * 4 * HOUR))
+                    .build());
+        }
+        context.getBean(SessionImportService.class).importSessions(sessions.iterator());
+
+        long middle = START + numberOfSessions / 2 * 4 * HOUR;
+        week = new SessionFilter(new Date(middle), new Date(middle + WEEK), null);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.getBean(SessionRepository.class).deleteAllInBatch();
+        context.close();
+    }
+
+    @Benchmark
+    public List<Session> findAllThenFilter() {
+        return sessionService.findAll().stream()
+                .filter(session -> !session.getDate().before(week.from()) && session.getDate().before(week.to()))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Session> findWeek() {
+        return sessionService.findPage(week, null, SessionService.MAX_PAGE_SIZE).items();
+    }
+}
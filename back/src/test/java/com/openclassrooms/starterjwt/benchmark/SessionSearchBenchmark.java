@@ -0,0 +1,63 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.search.SessionSearchIndex;
+import com.openclassrooms.starterjwt.services.SessionImportService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for {@link SessionSearchIndex#search} to rank a page of matches among many indexed sessions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SessionSearchBenchmark {
+    private static final String[] STYLES = {"Vinyasa", "Hatha", "Yin", "Ashtanga", "Prenatal", "Restorative", "Kundalini", "Iyengar"};
+    private static final String[] LEVELS = {"beginner", "intermediate", "advanced", "all levels"};
+
+    @Param({"100000"})
+    private int numberOfSessions;
+
+    @Param({"vinyasa", "pre", "hatha advanced"})
+    private String query;
+
+    private ConfigurableApplicationContext context;
+    private SessionSearchIndex sessionSearchIndex;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkApplication.start();
+
+        List<Session> sessions = new ArrayList<>(numberOfSessions);
+        for (int i = 0; i < numberOfSessions; i++) {
+            sessions.add(Session.builder()
+                    .name(STYLES[i % STYLES.length] + " " + i)
+                    .description("A " + LEVELS[i % LEVELS.length] + " class focusing on breath, balance and strength, session " + i)
+                    .date(new Date())
+                    .build());
+        }
+        context.getBean(SessionImportService.class).importSessions(sessions.iterator());
+        sessionSearchIndex = context.getBean(SessionSearchIndex.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.getBean(SessionRepository.class).deleteAllInBatch();
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> search() {
+        return sessionSearchIndex.search(query, 20);
+    }
+}
@@ -0,0 +1,119 @@
+package com.openclassrooms.starterjwt.integration.controllers;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.SessionArchiveRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionArchiver;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithUserDetails;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Tag("api/archive/session")
+public class ArchivedSessionControllerIT extends BaseIT {
+
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionArchiveRepository sessionArchiveRepository;
+
+    @Autowired
+    private SessionArchiver sessionArchiver;
+
+    private Teacher teacher;
+
+    @Autowired
+    public ArchivedSessionControllerIT(UserRepository userRepository) {
+        super(userRepository);
+    }
+
+    @BeforeAll
+    public void setup() {
+        teacher = teacherRepository.save(Teacher.builder()
+                .firstName("archive_firstname")
+                .lastName("archive_lastname")
+                .build());
+    }
+
+    @AfterAll
+    public void tearDown() {
+        teacherRepository.delete(teacher);
+    }
+
+    //region Test unauthorized endpoints
+
+    @Test
+    @Order(1)
+    @DisplayName("it should fail to list the archived sessions when no authorization is provided")
+    public void ArchivedSessionController_FindAll_ShouldReturnUnauthorizedResponse() throws Exception {
+        mockMvc.perform(get("/api/archive/session"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    //endregion
+
+    @Test
+    @Order(2)
+    @DisplayName("it should move past sessions to the archive, where they stay readable")
+    @WithUserDetails(value = "brice@denice.com")
+    public void ArchivedSessionController_ArchivedSessions_ShouldBeReadable() throws Exception {
+        var session = sessionRepository.save(Session.builder()
+                .name("Archived")
+                .description("Long past session")
+                .date(Date.from(Instant.parse("1950-01-01T10:00:00Z")))
+                .teacher(teacher)
+                .build());
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", session.getId(), user.getId()))
+                .andExpect(status().isOk());
+
+        Assertions.assertEquals(1, sessionArchiver.archiveBefore(Date.from(Instant.parse("1960-01-01T00:00:00Z"))));
+
+        mockMvc.perform(get("/api/session/{id}", session.getId()))
+                .andExpect(status().isNotFound());
+        Assertions.assertTrue(sessionRepository.findParticipants(List.of(session.getId())).isEmpty());
+        mockMvc.perform(get("/api/archive/session/{id}", session.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Archived"))
+                .andExpect(jsonPath("$.teacher_id").value(teacher.getId()))
+                .andExpect(jsonPath("$.participantCount").value(1))
+                .andExpect(jsonPath("$.users", Matchers.contains(user.getId().intValue())))
+                .andExpect(jsonPath("$.archivedAt").exists());
+        mockMvc.perform(get("/api/archive/session").param("to", "1960-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", Matchers.contains(session.getId().intValue())))
+                .andExpect(jsonPath("$[0].users", Matchers.contains(user.getId().intValue())));
+
+        sessionArchiveRepository.deleteById(session.getId());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("it should fail to return an archived session that does not exist")
+    @WithUserDetails(value = "brice@denice.com")
+    public void ArchivedSessionController_FindById_ShouldReturnNotFoundResponse() throws Exception {
+        mockMvc.perform(get("/api/archive/session/{id}", 99999L))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/archive/session/{id}", "invalid"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -1,23 +1,49 @@
 package com.openclassrooms.starterjwt.integration.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.controllers.SessionController;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionSeriesDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
 
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.ParticipantCountReconciler;
+import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistPromoter;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithUserDetails;
 
+import java.io.ByteArrayInputStream;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -26,9 +52,28 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Tag("api/session")
 public class SessionControllerIT extends BaseIT {
 
+    @Autowired
+    private TeacherRepository teacherRepository;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private WaitlistPromoter waitlistPromoter;
+
+    @Autowired
+    private ParticipantCountReconciler participantCountReconciler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private String sessionName;
     private Long sessionId;
     private User anotherUser;
+    private Teacher teacher;
 
     @Autowired
     public SessionControllerIT(UserRepository userRepository) {
@@ -37,7 +82,6 @@ public class SessionControllerIT extends BaseIT {
 
     @BeforeAll
     public void setup() {
-        sessionId = 1L;
         sessionName = "Session 1";
 
         var newUser = User.builder()
@@ -48,6 +92,11 @@ public class SessionControllerIT extends BaseIT {
                 .password("bricedenice!1")
                 .build();
         anotherUser = userRepository.save(newUser);
+
+        teacher = teacherRepository.save(Teacher.builder()
+                .firstName("teacher_firstname")
+                .lastName("teacher_lastname")
+                .build());
     }
 
     //region Test unauthorized endpoints
@@ -142,21 +191,24 @@ public class SessionControllerIT extends BaseIT {
                 .name(sessionName)
                 .date(new Date())
                 .description(description)
-                .teacher_id(1L)
+                .teacher_id(teacher.getId())
                 .users(new ArrayList<>())
                 .build();
 
         var objectMapper = new ObjectMapper();
         var json = objectMapper.writeValueAsString(sessionDto);
 
-        mockMvc.perform(post("/api/session")
+        var response = mockMvc.perform(post("/api/session")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(sessionId))
+                .andExpect(jsonPath("$.id").isNumber())
                 .andExpect(jsonPath("$.name").value(sessionName))
                 .andExpect(jsonPath("$.description").value(description))
-                .andExpect(jsonPath("$.date").exists());
+                .andExpect(jsonPath("$.date").exists())
+                .andReturn().getResponse().getContentAsString();
+        // ids come from a sequence shared with the other test classes of this context
+        sessionId = objectMapper.readTree(response).get("id").asLong();
     }
 
     @Test
@@ -185,7 +237,7 @@ public class SessionControllerIT extends BaseIT {
                 .name(updatedSessionName)
                 .date(new Date())
                 .description(updatedSessionDescription)
-                .teacher_id(1L)
+                .teacher_id(teacher.getId())
                 .users(lstUsers)
                 .build();
 
@@ -200,6 +252,25 @@ public class SessionControllerIT extends BaseIT {
                 .andExpect(jsonPath("$.updatedAt").isNotEmpty());
     }
 
+    @Test
+    @Order(4)
+    @DisplayName("it should report the outcome of each user of a bulk enrollment")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_Enroll_ShouldReturnReportPerUser() throws Exception {
+        var unknownUserId = 999L;
+        var userIds = Arrays.asList(user.getId(), unknownUserId);
+
+        mockMvc.perform(post("/api/session/{id}/participants", sessionId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(userIds)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(userIds.size())))
+                .andExpect(jsonPath("$[0].userId").value(user.getId()))
+                .andExpect(jsonPath("$[0].status").value("ALREADY_PARTICIPATING"))
+                .andExpect(jsonPath("$[1].userId").value(unknownUserId))
+                .andExpect(jsonPath("$[1].status").value("USER_NOT_FOUND"));
+    }
+
     @Test
     @Order(5)
     @DisplayName("it should fail to update a session with an invalid formatted input session id")
@@ -210,7 +281,7 @@ public class SessionControllerIT extends BaseIT {
                 .name("test fail update")
                 .date(new Date())
                 .description("description fail update")
-                .teacher_id(1L)
+                .teacher_id(teacher.getId())
                 .build();
 
         mockMvc.perform(put("/api/session/{id}", sessionId)
@@ -252,7 +323,8 @@ public class SessionControllerIT extends BaseIT {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].id").value(sessionId));
+                .andExpect(jsonPath("$[0].id").value(sessionId))
+                .andExpect(jsonPath("$[0].users", Matchers.hasSize(1)));
     }
 
 
@@ -336,7 +408,7 @@ public class SessionControllerIT extends BaseIT {
     @DisplayName("it should fail to no longer participate(delete user) from a non existing session")
     @WithUserDetails(value = "brice@denice.com")
     public void SessionController_NoLongerParticipate_WithUnknownSessionId_ShouldReturnNotFoundResponse() throws Exception {
-        var sessionId = 3L;
+        var sessionId = 99999L;
         mockMvc.perform(delete("/api/session/{id}/participate/{userId}", sessionId, user.getId())
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
@@ -347,7 +419,7 @@ public class SessionControllerIT extends BaseIT {
     @DisplayName("it should successfully no longer participate(delete user) from an existing session")
     @WithUserDetails(value = "brice@denice.com")
     public void SessionController_NoLongerParticipate_ShouldReturnOkResponse() throws Exception {
-        mockMvc.perform(delete("/api/session/{id}/participate/{userId}", sessionId, 2L)
+        mockMvc.perform(delete("/api/session/{id}/participate/{userId}", sessionId, anotherUser.getId())
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
@@ -368,7 +440,7 @@ public class SessionControllerIT extends BaseIT {
     @DisplayName("it should fail to delete a non existing session")
     @WithUserDetails(value = "brice@denice.com")
     public void SessionController_DeleteSession_WithNotExistingSessionId_ShouldReturnNotFoundResponse() throws Exception {
-        var sessionId = 3L;
+        var sessionId = 99999L;
         mockMvc.perform(delete("/api/session/{id}", sessionId)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
@@ -383,4 +455,546 @@ public class SessionControllerIT extends BaseIT {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @Order(21)
+    @DisplayName("it should import a batch of sessions sent as json and report the ones whose teacher is booked")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_CreateAll_ShouldReturnImportedCount() throws Exception {
+        var firstDay = LocalDate.now().plusYears(1).atTime(LocalTime.of(9, 0)).toInstant(ZoneOffset.UTC);
+        var sessionDtos = new ArrayList<SessionDto>();
+        for (var i = 1; i <= 3; i++) {
+            sessionDtos.add(SessionDto.builder()
+                    .name("Imported session " + i)
+                    .date(Date.from(firstDay.plus(Duration.ofDays(i))))
+                    .description("Imported description " + i)
+                    .teacher_id(teacher.getId())
+                    .build());
+        }
+        sessionDtos.add(SessionDto.builder()
+                .name("Same time as imported session 1")
+                .date(sessionDtos.get(0).getDate())
+                .description("Overlapping session")
+                .teacher_id(teacher.getId())
+                .build());
+
+        mockMvc.perform(post("/api/session/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(sessionDtos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.conflicts", Matchers.contains(3)));
+    }
+
+    @Test
+    @Order(22)
+    @DisplayName("it should import a batch of sessions uploaded as csv")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_UploadCsv_ShouldReturnImportedCount() throws Exception {
+        var csv = "name,date,teacher_id,description\n" +
+                "Vinyasa,2024-09-03T18:30:00Z," + teacher.getId() + ",\"Flow, breath\"\n";
+
+        mockMvc.perform(post("/api/session/batch")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+    }
+
+    @Test
+    @Order(23)
+    @DisplayName("it should fail to import a batch of sessions with an unknown teacher")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_UploadNdjson_WithUnknownTeacher_ShouldReturnBadRequestResponse() throws Exception {
+        var ndjson = "{\"name\":\"Vinyasa\",\"date\":\"2024-09-03T18:30:00Z\",\"teacher_id\":999,\"description\":\"Flow\"}\n";
+
+        mockMvc.perform(post("/api/session/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(ndjson))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(24)
+    @DisplayName("it should stream all the sessions as ndjson")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_ExportNdjson_ShouldStreamSessions() throws Exception {
+        var mvcResult = mockMvc.perform(get("/api/session/export")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(Matchers.containsString("\"name\":\"Vinyasa\"")))
+                .andExpect(content().string(Matchers.endsWith("}\n")));
+    }
+
+    @Test
+    @Order(25)
+    @DisplayName("it should stream all the sessions as csv")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_ExportCsv_ShouldStreamSessions() throws Exception {
+        var mvcResult = mockMvc.perform(get("/api/session/export")
+                        .accept("text/csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string(Matchers.startsWith("id,name,date,teacher_id,description,capacity,participant_count,users\r\n")))
+                .andExpect(content().string(Matchers.containsString(",Vinyasa,2024-09-03T18:30:00Z," + teacher.getId() + ",\"Flow, breath\",,0,\r\n")));
+    }
+
+    @Test
+    @Order(26)
+    @DisplayName("it should return only the sessions of a date range given by a teacher")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_FindAll_WithDateRangeAndTeacher_ShouldReturnMatchingSessions() throws Exception {
+        mockMvc.perform(get("/api/session")
+                        .param("from", "2024-09-03T00:00:00Z")
+                        .param("to", "2024-09-04T00:00:00+00:00")
+                        .param("teacherId", teacher.getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Vinyasa"));
+
+        mockMvc.perform(get("/api/session")
+                        .param("from", "2024-09-04T00:00:00Z")
+                        .param("to", "2024-09-05T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(0)));
+    }
+
+    @Test
+    @Order(27)
+    @DisplayName("it should fail to return the sessions of an empty date range")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_FindAll_WithEmptyDateRange_ShouldReturnBadRequestResponse() throws Exception {
+        mockMvc.perform(get("/api/session")
+                        .param("from", "2024-09-04T00:00:00Z")
+                        .param("to", "2024-09-03T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(28)
+    @DisplayName("it should find the sessions whose name or description starts with the searched words")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_Search_ShouldReturnMatchingSessions() throws Exception {
+        mockMvc.perform(get("/api/session/search")
+                        .param("q", "vinya"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$[0].name").value("Vinyasa"));
+
+        mockMvc.perform(get("/api/session/search")
+                        .param("q", "imported description"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(3)));
+    }
+
+    @Test
+    @Order(29)
+    @DisplayName("it should fail to search sessions without any word")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_Search_WithBlankQuery_ShouldReturnBadRequestResponse() throws Exception {
+        mockMvc.perform(get("/api/session/search")
+                        .param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(30)
+    @DisplayName("it should serve a session from the cache until one of its participants changes")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_FindById_ShouldBeCachedUntilParticipation() throws Exception {
+        var cachedSessions = cacheManager.getCache(SessionService.CACHE);
+        var id = sessionRepository.findAll().get(0).getId();
+
+        mockMvc.perform(get("/api/session/{id}", id))
+                .andExpect(status().isOk());
+        Assertions.assertNotNull(cachedSessions.get(id));
+
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", id, anotherUser.getId()))
+                .andExpect(status().isOk());
+        Assertions.assertNull(cachedSessions.get(id));
+
+        mockMvc.perform(get("/api/session/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.participantCount").value(1));
+    }
+
+    @Test
+    @Order(31)
+    @DisplayName("it should answer Not Modified to a poll of the sessions until their participants change")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_FindAll_WithCurrentETag_ShouldReturnNotModifiedResponse() throws Exception {
+        var etag = mockMvc.perform(get("/api/session"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotNull(etag);
+
+        mockMvc.perform(get("/api/session")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        var id = sessionRepository.findAll().get(0).getId();
+        mockMvc.perform(delete("/api/session/{id}/participate/{userId}", id, anotherUser.getId()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/session")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(etag)));
+    }
+
+    @Test
+    @Order(32)
+    @DisplayName("it should send the sessions gzipped to a client accepting it, with their own entity tag")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_FindAll_AcceptingGzip_ShouldReturnGzippedSessions() throws Exception {
+        var plain = mockMvc.perform(get("/api/session"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse();
+
+        var gzipped = mockMvc.perform(get("/api/session")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, Matchers.hasItem(HttpHeaders.ACCEPT_ENCODING)))
+                .andReturn().getResponse();
+
+        Assertions.assertNotEquals(plain.getHeader(HttpHeaders.ETAG), gzipped.getHeader(HttpHeaders.ETAG));
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            Assertions.assertArrayEquals(plain.getContentAsByteArray(), gzip.readAllBytes());
+        }
+
+        mockMvc.perform(get("/api/session")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, gzipped.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @Order(33)
+    @DisplayName("it should fail to update a session with unknown participants and list them")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_Update_WithUnknownUsers_ShouldReturnBadRequestResponse() throws Exception {
+        var id = sessionRepository.findAll().get(0).getId();
+        var sessionDto = SessionDto.builder()
+                .name("Updated with unknown users")
+                .date(new Date())
+                .description("Updated with unknown users")
+                .teacher_id(teacher.getId())
+                .users(Arrays.asList(user.getId(), 998L, 999L))
+                .build();
+
+        mockMvc.perform(put("/api/session/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(sessionDto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Error: Unknown users: [998, 999]"));
+    }
+
+    @Test
+    @Order(34)
+    @DisplayName("it should fail to create a session given by an unknown teacher")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_Create_WithUnknownTeacher_ShouldReturnBadRequestResponse() throws Exception {
+        var sessionDto = SessionDto.builder()
+                .name("Created with an unknown teacher")
+                .date(new Date())
+                .description("Created with an unknown teacher")
+                .teacher_id(999L)
+                .build();
+
+        mockMvc.perform(post("/api/session")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(sessionDto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Error: Unknown teacher: [999]"));
+    }
+
+    @Test
+    @Order(35)
+    @DisplayName("it should patch the description of a session and leave its participants as they were")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_Patch_ShouldChangeOnlyTheGivenFields() throws Exception {
+        var session = sessionRepository.findAll().get(0);
+        var participants = sessionRepository.findParticipants(List.of(session.getId()));
+
+        mockMvc.perform(patch("/api/session/{id}", session.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Patched description\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Patched description"))
+                .andExpect(jsonPath("$.name").value(session.getName()))
+                .andExpect(jsonPath("$.participantCount").value(session.getParticipantCount()))
+                .andExpect(jsonPath("$.users", Matchers.hasSize(participants.size())));
+
+        mockMvc.perform(patch("/api/session/{id}", session.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"users\":[" + anotherUser.getId() + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", Matchers.contains(anotherUser.getId().intValue())))
+                .andExpect(jsonPath("$.participantCount").value(1));
+    }
+
+    @Test
+    @Order(36)
+    @DisplayName("it should fail to patch a session that does not exist")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_Patch_WithUnknownSession_ShouldReturnNotFoundResponse() throws Exception {
+        mockMvc.perform(patch("/api/session/{id}", 99999)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Patched\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Order(37)
+    @DisplayName("it should reject an update made from a version of the session that has changed since")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_Update_WithStaleIfMatch_ShouldReturnPreconditionFailedResponse() throws Exception {
+        var id = sessionRepository.findAll().get(0).getId();
+        var etag = mockMvc.perform(get("/api/session/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", id, user.getId()))
+                .andExpect(status().isOk());
+
+        var sessionDto = SessionDto.builder()
+                .name("Updated from a stale copy")
+                .date(new Date())
+                .description("Updated from a stale copy")
+                .teacher_id(teacher.getId())
+                .build();
+        mockMvc.perform(put("/api/session/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(sessionDto)))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/session/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Patched from a stale copy\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @Order(38)
+    @DisplayName("it should patch a session at the version the client read and send the new one")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_Patch_WithCurrentIfMatch_ShouldReturnNewETag() throws Exception {
+        var id = sessionRepository.findAll().get(0).getId();
+        var etag = mockMvc.perform(get("/api/session/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(patch("/api/session/{id}", id)
+                        .header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Patched at its version\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Patched at its version"))
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(etag)));
+    }
+
+    @Test
+    @Order(39)
+    @DisplayName("it should create a weekly series along with its sessions of the coming weeks")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionSeriesController_Create_ShouldCreateSessionsUpToTheHorizon() throws Exception {
+        var today = LocalDate.now(ZoneOffset.UTC);
+        var seriesDto = SessionSeriesDto.builder()
+                .name("Weekly hatha")
+                .description("Every Tuesday and Thursday")
+                .teacher_id(teacher.getId())
+                .capacity(15)
+                .duration(90)
+                .startDate(today)
+                .startTime(LocalTime.of(18, 0))
+                .daysOfWeek(Set.of(DayOfWeek.TUESDAY, DayOfWeek.THURSDAY))
+                .until(today.plusYears(1))
+                .build();
+        var mapper = new ObjectMapper().findAndRegisterModules();
+
+        var response = mockMvc.perform(post("/api/series")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(mapper.writeValueAsString(seriesDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.zoneId").value("UTC"))
+                .andExpect(jsonPath("$.interval").value(1))
+                .andExpect(jsonPath("$.duration").value(90))
+                .andExpect(jsonPath("$.materializedUntil").value(today.plusDays(56).toString()))
+                .andReturn().getResponse().getContentAsString();
+        var seriesId = mapper.readValue(response, SessionSeriesDto.class).getId();
+
+        var occurrences = sessionRepository.findAll().stream()
+                .filter(session -> session.getSeries() != null && seriesId.equals(session.getSeries().getId()))
+                .toList();
+        var tuesdaysAndThursdays = today.datesUntil(today.plusDays(57))
+                .filter(day -> day.getDayOfWeek() == DayOfWeek.TUESDAY || day.getDayOfWeek() == DayOfWeek.THURSDAY)
+                .count();
+        Assertions.assertEquals(tuesdaysAndThursdays, occurrences.size());
+        Assertions.assertTrue(occurrences.stream().allMatch(session -> session.getCapacity() == 15));
+        Assertions.assertTrue(occurrences.stream().allMatch(session -> session.getDuration() == 90));
+
+        mockMvc.perform(get("/api/session/{id}", occurrences.get(0).getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.series_id").value(seriesId));
+    }
+
+    @Test
+    @Order(40)
+    @DisplayName("it should fail to create a series repeating on no day")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionSeriesController_Create_WithoutDays_ShouldReturnBadRequestResponse() throws Exception {
+        var seriesDto = SessionSeriesDto.builder()
+                .name("Never")
+                .description("No day")
+                .teacher_id(teacher.getId())
+                .startDate(LocalDate.of(2030, 1, 1))
+                .startTime(LocalTime.of(18, 0))
+                .daysOfWeek(Set.of())
+                .until(LocalDate.of(2030, 6, 1))
+                .build();
+
+        mockMvc.perform(post("/api/series")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().findAndRegisterModules().writeValueAsString(seriesDto)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(41)
+    @DisplayName("it should give the seat freed by a cancellation to the first user of the waitlist")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_NoLongerParticipate_ShouldPromoteTheWaitlist() throws Exception {
+        var session = sessionRepository.save(Session.builder()
+                .name("Full class")
+                .description("One seat only")
+                .date(new Date())
+                .teacher(teacher)
+                .capacity(1)
+                .build());
+
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", session.getId(), user.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/session/{id}/participate/{userId}", session.getId(), anotherUser.getId()))
+                .andExpect(status().isConflict());
+        mockMvc.perform(post("/api/session/{id}/waitlist/{userId}", session.getId(), anotherUser.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/session/{id}/waitlist", session.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.contains(anotherUser.getId().intValue())));
+
+        mockMvc.perform(delete("/api/session/{id}/participate/{userId}", session.getId(), user.getId()))
+                .andExpect(status().isOk());
+        waitlistPromoter.promotePending();
+
+        // the scheduled promotion may have run first, in which case it may still be committing
+        var participants = List.<Long>of();
+        for (int attempt = 0; attempt < 50 && participants.isEmpty(); attempt++) {
+            participants = sessionRepository.findParticipants(List.of(session.getId())).stream()
+                    .map(SessionParticipant::getUserId)
+                    .toList();
+            if (participants.isEmpty()) {
+                Thread.sleep(100);
+            }
+        }
+        Assertions.assertEquals(List.of(anotherUser.getId()), participants);
+        mockMvc.perform(get("/api/session/{id}/waitlist", session.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(0)));
+    }
+
+    @Test
+    @Order(42)
+    @DisplayName("it should fail to put a participant of a session on its waitlist")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_JoinWaitlist_WhileParticipating_ShouldReturnBadRequestResponse() throws Exception {
+        var participant = sessionRepository.findParticipants(sessionRepository.findAll().stream()
+                .map(Session::getId)
+                .toList()).get(0);
+
+        mockMvc.perform(post("/api/session/{id}/waitlist/{userId}", participant.getSessionId(), participant.getUserId()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(45)
+    @DisplayName("it should list session summaries with their booked seats, repaired by the reconciliation once drifted")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_FindSummaries_ShouldReturnTheBookedSeats() throws Exception {
+        var session = sessionRepository.save(Session.builder()
+                .name("Summarized")
+                .description("Summarized session")
+                .date(Date.from(Instant.parse("2031-01-01T10:00:00Z")))
+                .teacher(teacher)
+                .capacity(10)
+                .build());
+        for (var participant : List.of(user, anotherUser)) {
+            mockMvc.perform(post("/api/session/{id}/participate/{userId}", session.getId(), participant.getId()))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/session/summaries").param("from", "2031-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$[*].name", Matchers.contains("Summarized")))
+                .andExpect(jsonPath("$[0].teacher_id").value(teacher.getId()))
+                .andExpect(jsonPath("$[0].capacity").value(10))
+                .andExpect(jsonPath("$[0].participantCount").value(2))
+                .andExpect(jsonPath("$[0].users").doesNotExist());
+
+        jdbcTemplate.update("update SESSIONS set participant_count = 7 where id = ?", session.getId());
+        Assertions.assertTrue(participantCountReconciler.reconcile() >= 1);
+
+        mockMvc.perform(get("/api/session/summaries").param("from", "2031-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].participantCount").value(2));
+        Assertions.assertEquals(0, participantCountReconciler.reconcile());
+    }
+
+    @Test
+    @Order(49)
+    @DisplayName("it should refuse a session overlapping another session of the same teacher")
+    @WithUserDetails(value = "brice@denice.com")
+    public void SessionController_Create_OverlappingTeacherSession_ShouldReturnConflictResponse() throws Exception {
+        var booked = teacherRepository.save(Teacher.builder()
+                .firstName("Booked")
+                .lastName("Teacher")
+                .build());
+        var mapper = new ObjectMapper();
+        // 10:00 to 11:30, then 11:00 and 11:30 for the default hour
+        var slots = List.of(
+                SessionDto.builder().date(Date.from(Instant.parse("2033-05-02T10:00:00Z"))).duration(90),
+                SessionDto.builder().date(Date.from(Instant.parse("2033-05-02T11:00:00Z"))),
+                SessionDto.builder().date(Date.from(Instant.parse("2033-05-02T11:30:00Z"))));
+        var expected = List.of(status().isOk(), status().isConflict(), status().isOk());
+
+        for (int i = 0; i < slots.size(); i++) {
+            var sessionDto = slots.get(i)
+                    .name("Booked")
+                    .description("Booked session " + i)
+                    .teacher_id(booked.getId())
+                    .build();
+            mockMvc.perform(post("/api/session")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(mapper.writeValueAsString(sessionDto)))
+                    .andExpect(expected.get(i));
+        }
+
+        Assertions.assertEquals(2, sessionRepository.findTeacherSummaries(booked.getId(),
+                Date.from(Instant.parse("2033-05-02T00:00:00Z")), Date.from(Instant.parse("2033-05-03T00:00:00Z"))).size());
+    }
 }
@@ -1,19 +1,33 @@
 package com.openclassrooms.starterjwt.integration.controllers;
 
+import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import jakarta.persistence.EntityManagerFactory;
 import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -26,6 +40,21 @@ public class TeacherControllerIT extends BaseIT {
     @Autowired
     private TeacherRepository teacherRepository;
 
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private TeacherService teacherService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Autowired
     public TeacherControllerIT(UserRepository myRepository) {
         super(myRepository);
@@ -117,4 +146,121 @@ public class TeacherControllerIT extends BaseIT {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$", Matchers.hasSize(numberOfTeachers)));
     }
+
+    @Test
+    @Order(7)
+    @DisplayName("it should answer Not Modified to a poll of the teachers until one of them changes")
+    @WithUserDetails(value = "brice@denice.com")
+    public void TeacherController_FindAll_WithCurrentETag_ShouldReturnNotModifiedResponse() throws Exception {
+        var etag = mockMvc.perform(get("/api/teacher"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Assertions.assertNotNull(etag);
+
+        mockMvc.perform(get("/api/teacher")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        var teacher = teacherRepository.findAll().get(0);
+        teacher.setFirstName("renamed_firstname");
+        teacherRepository.save(teacher);
+
+        mockMvc.perform(get("/api/teacher")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(etag)));
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("it should serve the teachers from the second-level cache once warm")
+    @WithUserDetails(value = "brice@denice.com")
+    public void TeacherController_FindAll_WhenWarm_ShouldNotQueryTheDatabase() throws Exception {
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        mockMvc.perform(get("/api/teacher"))
+                .andExpect(status().isOk());
+        statistics.clear();
+
+        mockMvc.perform(get("/api/teacher"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(numberOfTeachers)));
+        var teacher = teacherRepository.findAll().get(0);
+        Assertions.assertEquals(teacher, teacherService.findById(teacher.getId()));
+
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(0, statistics.getQueryCacheMissCount());
+        Assertions.assertTrue(statistics.getQueryCacheHitCount() >= 3);
+        Assertions.assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("it should keep the teachers cached while users join and leave sessions")
+    @WithUserDetails(value = "brice@denice.com")
+    public void TeacherController_FindAll_AfterParticipations_ShouldNotQueryTheDatabase() throws Exception {
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        mockMvc.perform(get("/api/teacher"))
+                .andExpect(status().isOk());
+
+        // the native statements run when a user leaves a session, on ids that match no row so that the test
+        // leaves nothing behind
+        transactionTemplate.executeWithoutResult(transaction -> {
+            sessionRepository.removeParticipant(0L, user.getId());
+            sessionRepository.recountParticipants(List.of(0L));
+        });
+        statistics.clear();
+
+        mockMvc.perform(get("/api/teacher"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", Matchers.hasSize(numberOfTeachers)));
+
+        Assertions.assertEquals(0, statistics.getPrepareStatementCount());
+        Assertions.assertEquals(0, statistics.getQueryCacheMissCount());
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("it should return the schedule of a teacher with the workload of each week")
+    @WithUserDetails(value = "brice@denice.com")
+    public void TeacherController_FindSchedule_ShouldReturnTheWeeklyWorkload() throws Exception {
+        var scheduled = teacherRepository.save(Teacher.builder()
+                .firstName("Scheduled")
+                .lastName("Teacher")
+                .build());
+        var sessions = new ArrayList<Session>();
+        for (var date : List.of("2032-03-02T10:00:00Z", "2032-03-04T10:00:00Z", "2032-03-16T10:00:00Z")) {
+            var session = sessionRepository.save(Session.builder()
+                    .name("Scheduled")
+                    .description("Scheduled session")
+                    .date(Date.from(Instant.parse(date)))
+                    .teacher(scheduled)
+                    .build());
+            sessions.add(session);
+            mockMvc.perform(post("/api/session/{id}/participate/{userId}", session.getId(), user.getId()))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/api/teacher/{id}/schedule", scheduled.getId())
+                        .param("from", "2032-03-01T00:00:00Z")
+                        .param("weeks", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(scheduled.getId()))
+                .andExpect(jsonPath("$.firstName").value("Scheduled"))
+                .andExpect(jsonPath("$.sessions", Matchers.hasSize(3)))
+                .andExpect(jsonPath("$.weeks[*].weekStart", Matchers.contains("2032-03-01", "2032-03-08", "2032-03-15")))
+                .andExpect(jsonPath("$.weeks[*].sessions", Matchers.contains(2, 0, 1)))
+                .andExpect(jsonPath("$.weeks[*].attendees", Matchers.contains(2, 0, 1)))
+                .andExpect(jsonPath("$.totalSessions").value(3))
+                .andExpect(jsonPath("$.totalAttendees").value(3));
+
+        mockMvc.perform(get("/api/teacher/{id}/schedule", scheduled.getId()).param("zone", "Not/AZone"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/teacher/{id}/schedule", 99999L))
+                .andExpect(status().isNotFound());
+
+        sessions.forEach(session -> sessionService.delete(session.getId()));
+        teacherRepository.delete(scheduled);
+    }
 }
@@ -1,13 +1,25 @@
 package com.openclassrooms.starterjwt.integration.controllers;
 
+import com.openclassrooms.starterjwt.controllers.SessionController;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithUserDetails;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -17,6 +29,12 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @Tag("api/user")
 public class UserControllerIT extends BaseIT {
 
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionService sessionService;
+
     @Autowired
     public UserControllerIT(UserRepository userRepository) {
         super(userRepository);
@@ -105,6 +123,63 @@ public class UserControllerIT extends BaseIT {
 
     @Test
     @Order(8)
+    @DisplayName("it should return the sessions a user takes part in, page by page and ordered by date")
+    @WithUserDetails(value = "brice@denice.com")
+    public void UserController_FindSessions_ShouldReturnTheSessionsOfTheUser() throws Exception {
+        var participant = userRepository.save(User.builder()
+                .firstName("Booked")
+                .lastName("User")
+                .email("booked@user.com")
+                .password("password")
+                .build());
+        var sessions = new ArrayList<Session>();
+        for (var day = 1; day <= 4; day++) {
+            sessions.add(sessionRepository.save(Session.builder()
+                    .name("Booked " + day)
+                    .description("Booked session")
+                    .date(Date.from(Instant.parse("2030-05-0" + day + "T10:00:00Z")))
+                    .build()));
+        }
+        for (var session : List.of(sessions.get(3), sessions.get(0), sessions.get(2))) {
+            mockMvc.perform(post("/api/session/{id}/participate/{userId}", session.getId(), participant.getId()))
+                    .andExpect(status().isOk());
+        }
+
+        var cursor = mockMvc.perform(get("/api/user/{id}/sessions", participant.getId())
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", Matchers.contains("Booked 1", "Booked 3")))
+                .andExpect(jsonPath("$[0].users", Matchers.contains(participant.getId().intValue())))
+                .andReturn().getResponse().getHeader(SessionController.NEXT_CURSOR_HEADER);
+
+        mockMvc.perform(get("/api/user/{id}/sessions", participant.getId())
+                        .param("size", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", Matchers.contains("Booked 4")))
+                .andExpect(header().doesNotExist(SessionController.NEXT_CURSOR_HEADER));
+
+        mockMvc.perform(get("/api/user/{id}/sessions", participant.getId())
+                        .param("from", "2030-05-02T00:00:00Z")
+                        .param("to", "2030-05-04T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", Matchers.contains("Booked 3")));
+
+        sessions.forEach(session -> sessionService.delete(session.getId()));
+        userRepository.delete(participant);
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("it should fail to return the sessions of a user that has never been created")
+    @WithUserDetails(value = "brice@denice.com")
+    public void UserController_FindSessions_ShouldReturnNotFoundResponse() throws Exception {
+        mockMvc.perform(get("/api/user/{id}/sessions", 99999L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Order(10)
     @DisplayName("it should successfully delete a user")
     @WithUserDetails(value = "brice@denice.com")
     public void UserController_Delete_ShouldReturnOkResponse() throws Exception {
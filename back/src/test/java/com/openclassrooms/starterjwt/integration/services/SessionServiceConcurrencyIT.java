@@ -0,0 +1,111 @@
+package com.openclassrooms.starterjwt.integration.services;
+
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Tag("SessionServiceConcurrencyIT")
+public class SessionServiceConcurrencyIT {
+
+    private static final int NUMBER_OF_USERS = 2000;
+    private static final int CAPACITY = 25;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // the rows created by the test, removed afterwards so that the tests sharing this context do not see them
+    private Session session;
+
+    private List<User> users = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (session != null) {
+            sessionService.delete(session.getId());
+        }
+        userRepository.deleteAllByIdInBatch(users.stream().map(User::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Thousands of parallel reservations never oversell a session")
+    public void SessionService_ParallelParticipate_ShouldNeverExceedCapacity() throws Exception {
+        session = sessionRepository.save(Session.builder()
+                .name("Opening class")
+                .description("Thundering herd")
+                .date(new Date())
+                .capacity(CAPACITY)
+                .build());
+
+        List<User> herd = new ArrayList<>();
+        for (var i = 0; i < NUMBER_OF_USERS; i++) {
+            herd.add(User.builder()
+                    .email("herd" + i + "@studio.com")
+                    .firstName("herd")
+                    .lastName("user" + i)
+                    .password("password")
+                    .build());
+        }
+        users = userRepository.saveAll(herd);
+
+        var executor = Executors.newFixedThreadPool(64);
+        var start = new CountDownLatch(1);
+        var reserved = new AtomicInteger();
+        var rejected = new AtomicInteger();
+        var failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (User user : users) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        sessionService.participate(session.getId(), user.getId());
+                        reserved.incrementAndGet();
+                    } catch (ConflictException e) {
+                        rejected.incrementAndGet();
+                    } catch (Exception e) {
+                        failures.add(e);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Unexpected failures: " + failures);
+        assertEquals(CAPACITY, reserved.get());
+        assertEquals(NUMBER_OF_USERS - CAPACITY, rejected.get());
+        assertEquals(CAPACITY, sessionRepository.findById(session.getId()).orElseThrow().getParticipantCount());
+        assertEquals(CAPACITY, sessionRepository.findParticipants(List.of(session.getId())).size());
+    }
+}
@@ -0,0 +1,186 @@
+package com.openclassrooms.starterjwt.unit.datasource;
+
+import com.openclassrooms.starterjwt.datasource.ReadWriteRoutingDataSource;
+import com.openclassrooms.starterjwt.datasource.ReplicaMonitor;
+import com.openclassrooms.starterjwt.datasource.ReplicaStickiness;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two in-memory H2 databases stand for the primary and its replica, each knowing its own name.
+ */
+public class ReadWriteRoutingDataSourceTests {
+
+    private JdbcTemplate primary;
+
+    private JdbcTemplate replica;
+
+    private ReplicaMonitor replicaMonitor;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(database("routing_primary"));
+        replica = new JdbcTemplate(database("routing_replica"));
+        for (var database : Map.of("primary", primary, "replica", replica).entrySet()) {
+            database.getValue().execute("drop table if exists NODE");
+            database.getValue().execute("drop table if exists REPLICA_HEARTBEAT");
+            database.getValue().execute("create table NODE (name varchar(20))");
+            database.getValue().execute("create table REPLICA_HEARTBEAT (id int primary key, beat timestamp(3))");
+            database.getValue().update("insert into NODE values (?)", database.getKey());
+        }
+        setUp(replica.getDataSource());
+    }
+
+    private void setUp(DataSource replicaDataSource) {
+        replicaMonitor = new ReplicaMonitor(primary.getDataSource(), Map.of("replica-0", replicaDataSource),
+                Duration.ofSeconds(5));
+        var routing = new ReadWriteRoutingDataSource(replicaMonitor, new ReplicaStickiness(Duration.ofMinutes(1)));
+        routing.setTargetDataSources(replicaMonitor.targetDataSources());
+        routing.afterPropertiesSet();
+        var dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        ReadWriteRoutingDataSource.readFromPrimary(false);
+    }
+
+    private static DataSource database(String name) {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    private String node(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbcTemplate.queryForObject("select name from NODE", String.class));
+    }
+
+    /**
+     * Stands for the replication of the heartbeat row, {@code age} behind the clock of the primary.
+     */
+    private void replicateBeat(Duration age) {
+        var beat = primary.queryForObject("select current_timestamp(3)", Timestamp.class).toInstant().minus(age);
+        replica.update("merge into REPLICA_HEARTBEAT key (id) values (1, ?)", Timestamp.from(beat));
+    }
+
+    @Test
+    @DisplayName("Test read-only transactions go to the replica once it was checked, the others to the primary")
+    public void ReadWriteRoutingDataSource_ReadOnlyTransaction_GoesToTheReplica() {
+        replicateBeat(Duration.ofMillis(500));
+        assertEquals("primary", node(readOnly));
+
+        replicaMonitor.check();
+
+        assertEquals("replica", node(readOnly));
+        assertEquals("primary", node(readWrite));
+        assertEquals("primary", jdbcTemplate.queryForObject("select name from NODE", String.class));
+    }
+
+    @Test
+    @DisplayName("Test reads go back to the primary while the replica lags behind")
+    public void ReadWriteRoutingDataSource_LaggingReplica_ReadsFromThePrimary() {
+        replicateBeat(Duration.ofSeconds(60));
+        replicaMonitor.check();
+
+        assertEquals("primary", node(readOnly));
+
+        replicateBeat(Duration.ofSeconds(2));
+        replicaMonitor.check();
+
+        assertEquals("replica", node(readOnly));
+    }
+
+    @Test
+    @DisplayName("Test reads go to the primary until the replica received a heartbeat")
+    public void ReadWriteRoutingDataSource_ReplicaWithoutHeartbeat_ReadsFromThePrimary() {
+        replicaMonitor.check();
+
+        assertEquals("primary", node(readOnly));
+    }
+
+    @Test
+    @DisplayName("Test the primary stamps the heartbeat row with its clock")
+    public void ReplicaMonitor_Beat_StampsTheHeartbeatOnThePrimary() {
+        replicaMonitor.beat();
+        var first = primary.queryForObject("select beat from REPLICA_HEARTBEAT where id = 1", Timestamp.class);
+        replicaMonitor.beat();
+
+        var clock = primary.queryForObject("select current_timestamp(3)", Timestamp.class);
+        var beat = primary.queryForObject("select beat from REPLICA_HEARTBEAT where id = 1", Timestamp.class);
+        assertFalse(beat.before(first));
+        assertTrue(Duration.between(beat.toInstant(), clock.toInstant()).toMillis() < 1000);
+        assertEquals(1, primary.queryForObject("select count(*) from REPLICA_HEARTBEAT", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Test reads go to the primary while the replica is unreachable")
+    public void ReadWriteRoutingDataSource_UnreachableReplica_ReadsFromThePrimary() {
+        var unreachable = new JdbcDataSource();
+        unreachable.setURL("jdbc:h2:mem:routing_missing;IFEXISTS=TRUE");
+        setUp(unreachable);
+
+        replicaMonitor.check();
+
+        assertEquals(0, replicaMonitor.availableReplicas().size());
+        assertEquals("primary", node(readOnly));
+    }
+
+    @Test
+    @DisplayName("Test a user who just wrote reads from the primary, the other users from the replica")
+    public void ReadWriteRoutingDataSource_AfterOwnWrite_ReadsFromThePrimary() {
+        replicateBeat(Duration.ZERO);
+        replicaMonitor.check();
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("writer@studio.com", null));
+
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("update NODE set name = name"));
+
+        assertEquals("primary", node(readOnly));
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("reader@studio.com", null));
+        assertEquals("replica", node(readOnly));
+    }
+
+    @Test
+    @DisplayName("Test reads whose results get cached go to the primary")
+    public void ReadWriteRoutingDataSource_PrimaryReads_ReadFromThePrimary() {
+        replicateBeat(Duration.ZERO);
+        replicaMonitor.check();
+
+        assertEquals(false, ReadWriteRoutingDataSource.readFromPrimary(true));
+        assertEquals("primary", node(readOnly));
+
+        assertEquals(true, ReadWriteRoutingDataSource.readFromPrimary(false));
+        assertEquals("replica", node(readOnly));
+    }
+}
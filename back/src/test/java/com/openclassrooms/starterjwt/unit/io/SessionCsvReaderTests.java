@@ -0,0 +1,63 @@
+package com.openclassrooms.starterjwt.unit.io;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.io.SessionCsvReader;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionCsvReaderTests {
+
+    @Test
+    @DisplayName("Read sessions from a csv with a header, quoted fields and an empty capacity")
+    public void SessionCsvReader_ReadsAllRecords() {
+        var csv = """
+                teacher_id,name,date,description,capacity\r
+                1,Vinyasa,2024-09-03T18:30:00Z,"Flow, breath and ""balance""
+                on two lines",20\r
+                2,Prenatal,2024-09-05T10:00:00+02:00,Gentle,
+                """;
+
+        List<SessionDto> sessions = new ArrayList<>();
+        new SessionCsvReader(new StringReader(csv)).forEachRemaining(sessions::add);
+
+        assertEquals(2, sessions.size());
+        assertEquals("Vinyasa", sessions.get(0).getName());
+        assertEquals(1L, sessions.get(0).getTeacher_id());
+        assertEquals(Date.from(Instant.parse("2024-09-03T18:30:00Z")), sessions.get(0).getDate());
+        assertEquals("Flow, breath and \"balance\"\non two lines", sessions.get(0).getDescription());
+        assertEquals(20, sessions.get(0).getCapacity());
+        assertEquals(Date.from(Instant.parse("2024-09-05T08:00:00Z")), sessions.get(1).getDate());
+        assertNull(sessions.get(1).getCapacity());
+    }
+
+    @Test
+    @DisplayName("Read a csv without the required columns should throw a BadRequestException")
+    public void SessionCsvReader_WithMissingColumns_ShouldThrowBadRequestException() {
+        assertThrows(
+                BadRequestException.class,
+                () -> new SessionCsvReader(new StringReader("name,date\nVinyasa,2024-09-03T18:30:00Z\n")),
+                "Expected SessionCsvReader to throw BadRequestException, but it didn't"
+        );
+    }
+
+    @Test
+    @DisplayName("Read a record with an invalid date should throw a BadRequestException")
+    public void SessionCsvReader_WithInvalidDate_ShouldThrowBadRequestException() {
+        var reader = new SessionCsvReader(new StringReader("name,date,teacher_id,description\nVinyasa,tomorrow,1,Flow\n"));
+
+        assertThrows(
+                BadRequestException.class,
+                reader::next,
+                "Expected next() to throw BadRequestException, but it didn't"
+        );
+    }
+}
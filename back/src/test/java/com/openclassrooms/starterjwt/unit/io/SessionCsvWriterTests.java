@@ -0,0 +1,60 @@
+package com.openclassrooms.starterjwt.unit.io;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.io.SessionCsvReader;
+import com.openclassrooms.starterjwt.io.SessionCsvWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionCsvWriterTests {
+
+    @Test
+    @DisplayName("Write sessions as csv with a header and quoted fields")
+    public void SessionCsvWriter_WritesAllRecords() {
+        var out = new StringWriter();
+        var writer = new SessionCsvWriter(out);
+
+        writer.write(SessionDto.builder()
+                .id(7L)
+                .name("Vinyasa")
+                .date(Date.from(Instant.parse("2024-09-03T18:30:00Z")))
+                .teacher_id(1L)
+                .description("Flow, breath and \"balance\"")
+                .capacity(20)
+                .participantCount(2)
+                .users(List.of(3L, 5L))
+                .build());
+
+        assertEquals("id,name,date,teacher_id,description,capacity,participant_count,users\r\n" +
+                "7,Vinyasa,2024-09-03T18:30:00Z,1,\"Flow, breath and \"\"balance\"\"\",20,2,3 5\r\n", out.toString());
+    }
+
+    @Test
+    @DisplayName("Written sessions can be read back")
+    public void SessionCsvWriter_RoundTripsWithReader() {
+        var out = new StringWriter();
+        var session = SessionDto.builder()
+                .name("Prenatal")
+                .date(Date.from(Instant.parse("2024-09-05T08:00:00Z")))
+                .teacher_id(2L)
+                .description("Gentle\non two lines")
+                .build();
+
+        new SessionCsvWriter(out).write(session);
+        var read = new SessionCsvReader(new StringReader(out.toString())).next();
+
+        assertEquals(session.getName(), read.getName());
+        assertEquals(session.getDate(), read.getDate());
+        assertEquals(session.getTeacher_id(), read.getTeacher_id());
+        assertEquals(session.getDescription(), read.getDescription());
+        assertNull(read.getCapacity());
+    }
+}
@@ -0,0 +1,93 @@
+package com.openclassrooms.starterjwt.unit.mapper;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.exception.UnknownReferenceException;
+import com.openclassrooms.starterjwt.mapper.SessionMapperImpl;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionMapperTests {
+
+    @Mock
+    private TeacherService teacherService;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private SessionMapperImpl sessionMapper;
+
+    @Test
+    @DisplayName("Map a session resolves all its participants with a single query, in the given order")
+    public void SessionMapper_ToEntity_ResolvesUsersAtOnce() {
+        var userIds = LongStream.rangeClosed(1, 200).boxed().toList();
+        var teacher = Teacher.builder().id(1L).firstName("").lastName("").build();
+        when(teacherService.findById(1L)).thenReturn(teacher);
+        when(userService.findAllById(Set.copyOf(userIds)))
+                .thenReturn(userIds.reversed().stream().map(id -> User.builder().id(id).build()).toList());
+
+        Session session = sessionMapper.toEntity(newSessionDto(1L, userIds));
+
+        assertSame(teacher, session.getTeacher());
+        assertEquals(userIds, session.getUsers().stream().map(User::getId).toList());
+        verify(userService, times(1)).findAllById(anyCollection());
+        verify(userService, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Map a session with unknown participants reports all of them")
+    public void SessionMapper_ToEntity_WithUnknownUsers_ShouldThrowUnknownReferenceException() {
+        when(teacherService.findById(1L)).thenReturn(Teacher.builder().id(1L).build());
+        when(userService.findAllById(Set.of(1L, 2L, 3L))).thenReturn(List.of(User.builder().id(2L).build()));
+
+        var exception = assertThrows(
+                UnknownReferenceException.class,
+                () -> sessionMapper.toEntity(newSessionDto(1L, List.of(1L, 2L, 3L))),
+                "Expected toEntity() to throw UnknownReferenceException, but it didn't"
+        );
+        assertEquals(List.of(1L, 3L), exception.getIds());
+    }
+
+    @Test
+    @DisplayName("Map a session given by an unknown teacher should throw an UnknownReferenceException")
+    public void SessionMapper_ToEntity_WithUnknownTeacher_ShouldThrowUnknownReferenceException() {
+        when(teacherService.findById(9L)).thenReturn(null);
+
+        assertThrows(
+                UnknownReferenceException.class,
+                () -> sessionMapper.toEntity(newSessionDto(9L, List.of())),
+                "Expected toEntity() to throw UnknownReferenceException, but it didn't"
+        );
+        verifyNoInteractions(userService);
+    }
+
+    private SessionDto newSessionDto(Long teacherId, List<Long> userIds) {
+        return SessionDto.builder()
+                .name("Session")
+                .date(new Date())
+                .description("Description")
+                .teacher_id(teacherId)
+                .users(userIds)
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.openclassrooms.starterjwt.unit.recurrence;
+
+import com.openclassrooms.starterjwt.recurrence.WeeklyRecurrence;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeeklyRecurrenceTests {
+
+    private static final Set<DayOfWeek> TUESDAY_AND_THURSDAY = Set.of(DayOfWeek.TUESDAY, DayOfWeek.THURSDAY);
+
+    @Test
+    @DisplayName("Test a weekly recurrence repeats on its days until its last day, except the excluded dates")
+    public void WeeklyRecurrence_DatesBetween_ReturnsItsDaysExceptExclusions() {
+        // Wednesday 2025-01-01 to Thursday 2025-01-16
+        var recurrence = new WeeklyRecurrence(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 16),
+                TUESDAY_AND_THURSDAY, 1, Set.of(LocalDate.of(2025, 1, 9)));
+
+        List<LocalDate> dates = recurrence.datesBetween(LocalDate.of(2024, 12, 1), LocalDate.of(2025, 12, 31));
+
+        assertEquals(List.of(
+                LocalDate.of(2025, 1, 2),
+                LocalDate.of(2025, 1, 7),
+                LocalDate.of(2025, 1, 14),
+                LocalDate.of(2025, 1, 16)), dates);
+    }
+
+    @Test
+    @DisplayName("Test a recurrence every other week skips the weeks in between, counted from its first week")
+    public void WeeklyRecurrence_EveryOtherWeek_SkipsWeeksInBetween() {
+        var recurrence = new WeeklyRecurrence(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 28),
+                Set.of(DayOfWeek.MONDAY), 2, null);
+
+        List<LocalDate> dates = recurrence.datesBetween(LocalDate.of(2025, 1, 20), LocalDate.of(2025, 2, 10));
+
+        // the first week is the one of 2024-12-30, the first Monday of the series itself is before its start
+        assertEquals(List.of(LocalDate.of(2025, 1, 27), LocalDate.of(2025, 2, 10)), dates);
+    }
+
+    @Test
+    @DisplayName("Test the dates of a recurrence are only those of the asked range")
+    public void WeeklyRecurrence_DatesBetween_StaysWithinTheRange() {
+        var recurrence = new WeeklyRecurrence(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31),
+                TUESDAY_AND_THURSDAY, 1, Set.of());
+
+        assertEquals(List.of(LocalDate.of(2025, 3, 6)),
+                recurrence.datesBetween(LocalDate.of(2025, 3, 5), LocalDate.of(2025, 3, 10)));
+        assertTrue(recurrence.datesBetween(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 3, 1)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test a recurrence ending before it starts or without any day is rejected")
+    public void WeeklyRecurrence_Invalid_ShouldThrowIllegalArgumentException() {
+        var start = LocalDate.of(2025, 1, 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new WeeklyRecurrence(start, start.minusDays(1), TUESDAY_AND_THURSDAY, 1, Set.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new WeeklyRecurrence(start, start.plusWeeks(4), Set.of(), 1, Set.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new WeeklyRecurrence(start, start.plusWeeks(4), TUESDAY_AND_THURSDAY, 0, Set.of()));
+    }
+}
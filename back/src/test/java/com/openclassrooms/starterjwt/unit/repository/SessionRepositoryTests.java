@@ -0,0 +1,137 @@
+package com.openclassrooms.starterjwt.unit.repository;
+
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.pagination.KeysetCursor;
+import com.openclassrooms.starterjwt.repository.ParticipantCount;
+import com.openclassrooms.starterjwt.repository.SessionFilter;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Tag("SessionRepositoryTests")
+public class SessionRepositoryTests {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User participant;
+
+    private final List<Session> sessions = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        participant = userRepository.save(newUser("participant@studio.com"));
+        var other = userRepository.save(newUser("other@studio.com"));
+        for (var day = 1; day <= 5; day++) {
+            sessions.add(sessionRepository.saveAndFlush(Session.builder()
+                    .name("Session " + day)
+                    .description("")
+                    .date(Date.from(Instant.parse("2030-01-0" + day + "T10:00:00Z")))
+                    .build()));
+        }
+        sessionRepository.addParticipants(sessions.get(0).getId(), List.of(participant.getId(), other.getId()));
+        sessionRepository.addParticipants(sessions.get(2).getId(), List.of(participant.getId()));
+        sessionRepository.addParticipants(sessions.get(3).getId(), List.of(other.getId()));
+        sessionRepository.addParticipants(sessions.get(4).getId(), List.of(participant.getId()));
+    }
+
+    private static User newUser(String email) {
+        return User.builder()
+                .email(email)
+                .password("password")
+                .firstName("first")
+                .lastName("last")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Find the page of the sessions a user takes part in, ordered by date")
+    public void SessionRepository_findPageOfParticipant_ReturnsTheirSessions() {
+        var filter = new SessionFilter(null, null, null, participant.getId());
+
+        var page = sessionRepository.findPage(filter, null, 2);
+        Assertions.assertEquals(List.of(sessions.get(0), sessions.get(2)), page);
+
+        var last = page.get(1);
+        var next = sessionRepository.findPage(filter, new KeysetCursor(last.getDate(), last.getId()), 2);
+        Assertions.assertEquals(List.of(sessions.get(4)), next);
+    }
+
+    @Test
+    @DisplayName("Find the sessions a user takes part in within a date range")
+    public void SessionRepository_findPageOfParticipantInRange_ReturnsTheirSessionsOfTheRange() {
+        var filter = new SessionFilter(Date.from(Instant.parse("2030-01-02T00:00:00Z")),
+                Date.from(Instant.parse("2030-01-05T00:00:00Z")), null, participant.getId());
+
+        Assertions.assertEquals(List.of(sessions.get(2)), sessionRepository.findPage(filter, null, 10));
+    }
+
+    @Test
+    @DisplayName("Find the page of session summaries with their recorded participant count")
+    public void SessionRepository_findSummaryPage_ReturnsTheSummariesOfThePage() {
+        var first = sessions.get(0);
+        first.setParticipantCount(2);
+        sessionRepository.saveAndFlush(first);
+
+        var page = sessionRepository.findSummaryPage(new SessionFilter(null, null, null), null, 2);
+
+        Assertions.assertEquals(List.of(first.getId(), sessions.get(1).getId()),
+                page.stream().map(SessionSummaryDto::getId).toList());
+        Assertions.assertEquals("Session 1", page.get(0).getName());
+        Assertions.assertEquals(2, page.get(0).getParticipantCount());
+        Assertions.assertEquals(0, page.get(1).getParticipantCount());
+    }
+
+    @Test
+    @DisplayName("Find the recorded participant counts next to the actual ones, then repair the drifted ones")
+    public void SessionRepository_recountParticipants_RepairsTheDriftedCounts() {
+        var ids = sessions.stream().map(Session::getId).toList();
+
+        var counts = sessionRepository.findParticipantCounts(ids.get(0) - 1, 3);
+        Assertions.assertEquals(ids.subList(0, 3), counts.stream().map(ParticipantCount::getSessionId).toList());
+        Assertions.assertEquals(List.of(0, 0, 0), counts.stream().map(ParticipantCount::getRecorded).toList());
+        Assertions.assertEquals(List.of(2L, 0L, 1L), counts.stream().map(ParticipantCount::getActual).toList());
+
+        // the second session already has the right count
+        Assertions.assertEquals(2, sessionRepository.recountParticipants(ids.subList(0, 3)));
+
+        counts = sessionRepository.findParticipantCounts(ids.get(0) - 1, 3);
+        Assertions.assertEquals(List.of(2, 0, 1), counts.stream().map(ParticipantCount::getRecorded).toList());
+    }
+
+    @Test
+    @DisplayName("Find the seats of a session with a locking read, nothing for a missing session")
+    public void SessionRepository_findSeatsForUpdate_ReturnsTheSeatsOfTheSession() {
+        var session = sessions.get(0);
+        session.setCapacity(5);
+        sessionRepository.saveAndFlush(session);
+        Assertions.assertEquals(1, sessionRepository.reserveSeats(session.getId(), 2));
+
+        var seats = sessionRepository.findSeatsForUpdate(session.getId()).orElseThrow();
+
+        Assertions.assertEquals(5, seats.getCapacity());
+        Assertions.assertEquals(2, seats.getParticipantCount());
+        Assertions.assertEquals(3, seats.freeSeats(4));
+        Assertions.assertTrue(sessionRepository.findSeatsForUpdate(-1L).isEmpty());
+    }
+}
@@ -0,0 +1,47 @@
+package com.openclassrooms.starterjwt.unit.repository;
+
+import com.openclassrooms.starterjwt.repository.TableVersion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TableVersionTests {
+
+    @Test
+    @DisplayName("The entity tag changes with the row count, the highest id and the sum of the row versions")
+    public void TableVersion_ToETag_ChangesWithCountLastIdAndRevision() {
+        var etag = version(3, 7L, 12L).toETag();
+
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertEquals(etag, version(3, 7L, 12L).toETag());
+        assertNotEquals(etag, version(4, 7L, 12L).toETag());
+        assertNotEquals(etag, version(3, 8L, 12L).toETag());
+        assertNotEquals(etag, version(3, 7L, 13L).toETag());
+    }
+
+    @Test
+    @DisplayName("An empty table has an entity tag")
+    public void TableVersion_ToETag_OfEmptyTable() {
+        assertEquals("\"0-0-0\"", version(0, null, null).toETag());
+    }
+
+    private static TableVersion version(long total, Long lastId, Long revision) {
+        return new TableVersion() {
+            @Override
+            public long getTotal() {
+                return total;
+            }
+
+            @Override
+            public Long getLastId() {
+                return lastId;
+            }
+
+            @Override
+            public Long getRevision() {
+                return revision;
+            }
+        };
+    }
+}
@@ -0,0 +1,161 @@
+package com.openclassrooms.starterjwt.unit.schedule;
+
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSlot;
+import com.openclassrooms.starterjwt.schedule.TeacherSlotIndex;
+import com.openclassrooms.starterjwt.services.SessionChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TeacherSlotIndexTests {
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private TeacherSlotIndex teacherSlotIndex;
+
+    @BeforeEach
+    void setUp() {
+        // teacher 1 gives session 1 from 10:00 to 11:00 and session 2 from 14:00 to 16:00
+        when(sessionRepository.streamSlots()).thenReturn(Stream.of(
+                newSlot(1L, 1L, 10 * HOUR, null),
+                newSlot(2L, 1L, 14 * HOUR, 120)));
+        teacherSlotIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("A teacher is booked when a slot overlaps one of the sessions, default duration included")
+    public void TeacherSlotIndex_IsBooked_FindsOverlaps() {
+        assertTrue(teacherSlotIndex.isBooked(newSession(null, 1L, 10 * HOUR + 30 * 60_000, 90)));
+        assertTrue(teacherSlotIndex.isBooked(newSession(null, 1L, 9 * HOUR, 8 * 60)));
+        assertTrue(teacherSlotIndex.isBooked(newSession(null, 1L, 15 * HOUR, 1)));
+    }
+
+    @Test
+    @DisplayName("A teacher is free back to back with a session, for another teacher, or for the session itself")
+    public void TeacherSlotIndex_IsBooked_IgnoresAdjacentSlotsOtherTeachersAndItself() {
+        assertFalse(teacherSlotIndex.isBooked(newSession(null, 1L, 11 * HOUR, 3 * 60)));
+        assertFalse(teacherSlotIndex.isBooked(newSession(null, 2L, 10 * HOUR, 60)));
+        assertFalse(teacherSlotIndex.isBooked(newSession(2L, 1L, 14 * HOUR, 60)));
+    }
+
+    @Test
+    @DisplayName("Reserve an overlapping slot should throw a ConflictException")
+    public void TeacherSlotIndex_ReserveOverlap_ShouldThrowConflictException() {
+        assertThrows(ConflictException.class, () -> teacherSlotIndex.reserve(newSession(3L, 1L, 15 * HOUR, 30)));
+    }
+
+    @Test
+    @DisplayName("A reserved slot is held until its transaction ends and released if it rolls back")
+    public void TeacherSlotIndex_Reserve_HoldsSlotUntilRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        teacherSlotIndex.reserve(newSession(3L, 1L, 12 * HOUR, 60));
+
+        assertThrows(ConflictException.class, () -> teacherSlotIndex.reserve(newSession(4L, 1L, 12 * HOUR, 30)));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        assertFalse(teacherSlotIndex.isBooked(newSession(null, 1L, 12 * HOUR, 60)));
+    }
+
+    @Test
+    @DisplayName("A session rolled back after moving keeps its committed slot")
+    public void TeacherSlotIndex_ReserveRolledBack_KeepsCommittedSlot() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        teacherSlotIndex.reserve(newSession(1L, 1L, 10 * HOUR, null));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertTrue(teacherSlotIndex.isBooked(newSession(null, 1L, 10 * HOUR, null)));
+    }
+
+    @Test
+    @DisplayName("A rebuild reloads the committed slots and keeps the slots reserved by running transactions")
+    public void TeacherSlotIndex_Rebuild_KeepsReservedSlots() {
+        TransactionSynchronizationManager.initSynchronization();
+        teacherSlotIndex.reserve(newSession(3L, 1L, 12 * HOUR, 60));
+        when(sessionRepository.streamSlots()).thenReturn(Stream.of(newSlot(4L, 2L, 10 * HOUR, null)));
+
+        teacherSlotIndex.rebuild();
+
+        assertTrue(teacherSlotIndex.isBooked(newSession(null, 1L, 12 * HOUR, 60)));
+        assertTrue(teacherSlotIndex.isBooked(newSession(null, 2L, 10 * HOUR, 60)));
+        assertFalse(teacherSlotIndex.isBooked(newSession(null, 1L, 10 * HOUR, 60)));
+    }
+
+    @Test
+    @DisplayName("The index follows moved, reassigned and deleted sessions")
+    public void TeacherSlotIndex_OnSessionChanged_UpdatesSlots() {
+        teacherSlotIndex.onSessionChanged(SessionChangedEvent.saved(newSession(1L, 2L, 10 * HOUR, null)));
+        teacherSlotIndex.onSessionChanged(SessionChangedEvent.deleted(2L));
+
+        assertFalse(teacherSlotIndex.isBooked(newSession(null, 1L, 0, 24 * 60)));
+        assertTrue(teacherSlotIndex.isBooked(newSession(null, 2L, 10 * HOUR, 60)));
+    }
+
+    private static Session newSession(Long id, Long teacherId, long start, Integer duration) {
+        return Session.builder()
+                .id(id)
+                .teacher(Teacher.builder().id(teacherId).build())
+                .date(new Date(start))
+                .duration(duration)
+                .build();
+    }
+
+    private static SessionSlot newSlot(Long sessionId, Long teacherId, long start, Integer duration) {
+        return new SessionSlot() {
+            @Override
+            public Long getSessionId() {
+                return sessionId;
+            }
+
+            @Override
+            public Long getTeacherId() {
+                return teacherId;
+            }
+
+            @Override
+            public Date getDate() {
+                return new Date(start);
+            }
+
+            @Override
+            public Integer getDuration() {
+                return duration;
+            }
+        };
+    }
+}
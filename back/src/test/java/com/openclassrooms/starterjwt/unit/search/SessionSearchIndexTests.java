@@ -0,0 +1,106 @@
+package com.openclassrooms.starterjwt.unit.search;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.search.SessionSearchIndex;
+import com.openclassrooms.starterjwt.services.SessionChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionSearchIndexTests {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SessionSearchIndex sessionSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(sessionRepository.streamAll()).thenReturn(Stream.of(
+                newSession(1L, "Vinyasa flow", "A dynamic practice linking breath and movement"),
+                newSession(2L, "Prénatal", "Gentle yoga for mothers to be, no vinyasa"),
+                newSession(3L, "Yin", "Long held postures")));
+        sessionSearchIndex.rebuild();
+    }
+
+    @Test
+    @DisplayName("Search ranks name matches before description matches")
+    public void SessionSearchIndex_Search_RanksNameFirst() {
+        assertEquals(List.of(1L, 2L), sessionSearchIndex.search("vinyasa", 10));
+    }
+
+    @Test
+    @DisplayName("Search matches word prefixes, ignoring case and accents")
+    public void SessionSearchIndex_Search_MatchesPrefixes() {
+        assertEquals(List.of(2L), sessionSearchIndex.search("PRENA", 10));
+        assertEquals(List.of(1L, 2L), sessionSearchIndex.search("vin", 10));
+    }
+
+    @Test
+    @DisplayName("Search requires every word of the query")
+    public void SessionSearchIndex_Search_MatchesAllWords() {
+        assertEquals(List.of(2L), sessionSearchIndex.search("gentle vinyasa", 10));
+        assertEquals(List.of(), sessionSearchIndex.search("gentle postures", 10));
+    }
+
+    @Test
+    @DisplayName("Search returns at most the requested number of sessions")
+    public void SessionSearchIndex_Search_IsLimited() {
+        assertEquals(List.of(1L), sessionSearchIndex.search("vinyasa", 1));
+    }
+
+    @Test
+    @DisplayName("Search follows updated and deleted sessions")
+    public void SessionSearchIndex_OnSessionChanged_UpdatesIndex() {
+        sessionSearchIndex.onSessionChanged(SessionChangedEvent.saved(newSession(3L, "Yin", "Slow vinyasa")));
+        sessionSearchIndex.onSessionChanged(SessionChangedEvent.deleted(1L));
+
+        assertEquals(List.of(2L, 3L), sessionSearchIndex.search("vinyasa", 10));
+        assertEquals(List.of(), sessionSearchIndex.search("postures", 10));
+        assertEquals(List.of(), sessionSearchIndex.search("flow", 10));
+    }
+
+    @Test
+    @DisplayName("A rebuild reads the sessions in a read-write transaction, from the primary")
+    public void SessionSearchIndex_Rebuild_ReadsFromThePrimary() {
+        verify(transactionManager).getTransaction(argThat(definition -> !definition.isReadOnly()));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Search with no word returns nothing")
+    public void SessionSearchIndex_Search_WithBlankQuery_ReturnsNothing() {
+        assertEquals(List.of(), sessionSearchIndex.search(" ,; ", 10));
+    }
+
+    private Session newSession(Long id, String name, String description) {
+        return Session.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .build();
+    }
+}
@@ -4,10 +4,12 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import java.io.IOException;
+import java.util.Optional;
 
 
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -60,8 +62,7 @@ public class AuthTokenFilterTests {
         String headerValue = "Bearer ";
 
         when(request.getHeader(headerName)).thenReturn(headerValue+ jwt);
-        when(jwtUtils.validateJwtToken(jwt)).thenReturn(true);
-        when(jwtUtils.getUserNameFromJwtToken(jwt)).thenReturn(username);
+        when(jwtUtils.verifyJwtToken(jwt)).thenReturn(Optional.of(Jwts.claims().subject(username).build()));
         when(userDetailsService.loadUserByUsername(username)).thenReturn(mock(UserDetails.class));
 
         ReflectionTestUtils.setField(authTokenFilter, "jwtUtils", jwtUtils);
@@ -71,4 +72,28 @@ public class AuthTokenFilterTests {
 
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test doFilterInternal with an invalid token leaves the request unauthenticated")
+    public void AuthTokenFilterTests_doFilterInternal_WithInvalidJwtAuthentication() throws Exception {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain filterChain = mock(FilterChain.class);
+        JwtUtils jwtUtils = mock(JwtUtils.class);
+        UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+
+        String jwt = "invalid.jwt.token";
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + jwt);
+        when(jwtUtils.verifyJwtToken(jwt)).thenReturn(Optional.empty());
+
+        ReflectionTestUtils.setField(authTokenFilter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(authTokenFilter, "userDetailsService", userDetailsService);
+        SecurityContextHolder.clearContext();
+
+        authTokenFilter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(userDetailsService);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
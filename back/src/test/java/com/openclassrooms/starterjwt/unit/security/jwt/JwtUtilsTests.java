@@ -45,6 +45,7 @@ public class JwtUtilsTests {
         //node -e "console.log(require('crypto').randomBytes(32).toString('hex'))"
         ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "63aad59352bb166442ecd9d64e77210dc6308b003e3bad9c4194f304546cf68c");
         ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", expirationDelay);
+        jwtUtils.init();
     }
 
     @Test
@@ -186,4 +187,44 @@ public class JwtUtilsTests {
         }
         catch (Exception ignored) {}
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Verify a JWT token returns its claims, again from the cache")
+    public void JwtUtilsTests_verifyJwtToken_ShouldReturnTheClaimsOfAValidToken() {
+        var token = Jwts.builder()
+                .subject(email)
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60*1000))
+                .signWith(jwtUtils.getSignInKey())
+                .compact();
+
+        var claims = jwtUtils.verifyJwtToken(token);
+
+        assertTrue(claims.isPresent());
+        assertEquals(email, claims.get().getSubject());
+        assertSame(claims.get(), jwtUtils.verifyJwtToken(token).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Verify a JWT token reusing the signature of a verified token with another payload should fail")
+    public void JwtUtilsTests_verifyJwtToken_TamperedPayload_ShouldNotBeAValidToken() {
+        var token = Jwts.builder()
+                .subject(email)
+                .expiration(new Date(System.currentTimeMillis() + 60*1000))
+                .signWith(jwtUtils.getSignInKey())
+                .compact();
+        var other = Jwts.builder()
+                .subject("intruder@studio.com")
+                .expiration(new Date(System.currentTimeMillis() + 60*1000))
+                .signWith(jwtUtils.getSignInKey())
+                .compact();
+        String signature = token.substring(token.lastIndexOf('.'));
+        String tampered = other.substring(0, other.lastIndexOf('.')) + signature;
+
+        assertTrue(jwtUtils.verifyJwtToken(token).isPresent());
+
+        assertTrue(jwtUtils.verifyJwtToken(tampered).isEmpty());
+        assertTrue(jwtUtils.verifyJwtToken("invalid.token.").isEmpty());
+        assertTrue(jwtUtils.verifyJwtToken("").isEmpty());
+    }
+}
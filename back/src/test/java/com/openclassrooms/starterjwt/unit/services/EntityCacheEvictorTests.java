@@ -0,0 +1,77 @@
+package com.openclassrooms.starterjwt.unit.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.services.EntityCacheEvictor;
+import com.openclassrooms.starterjwt.services.SessionChangedEvent;
+import com.openclassrooms.starterjwt.services.SessionParticipantsChangedEvent;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityCacheEvictorTests {
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    private EntityCacheEvictor entityCacheEvictor;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(SessionService.CACHE);
+        entityCacheEvictor = new EntityCacheEvictor(cacheManager);
+        cacheManager.getCache(SessionService.CACHE).put(1L, Session.builder().id(1L).build());
+        cacheManager.getCache(SessionService.CACHE).put(2L, Session.builder().id(2L).build());
+    }
+
+    @Test
+    @DisplayName("A saved or deleted session is evicted")
+    public void EntityCacheEvictor_OnSessionChanged_EvictsSession() {
+        entityCacheEvictor.onSessionChanged(SessionChangedEvent.deleted(1L));
+
+        assertNull(cacheManager.getCache(SessionService.CACHE).get(1L));
+        assertNotNull(cacheManager.getCache(SessionService.CACHE).get(2L));
+    }
+
+    @Test
+    @DisplayName("A session whose participants changed is evicted")
+    public void EntityCacheEvictor_OnSessionParticipantsChanged_EvictsSession() {
+        entityCacheEvictor.onSessionParticipantsChanged(new SessionParticipantsChangedEvent(2L));
+
+        assertNotNull(cacheManager.getCache(SessionService.CACHE).get(1L));
+        assertNull(cacheManager.getCache(SessionService.CACHE).get(2L));
+    }
+
+    @Test
+    @DisplayName("A session missing from the cache is loaded once and cached")
+    public void EntityCacheEvictor_GetSession_CachesLoadedSession() {
+        var session = Session.builder().id(3L).build();
+
+        assertSame(session, entityCacheEvictor.getSession(3L, () -> session));
+        assertSame(session, entityCacheEvictor.getSession(3L, () -> fail("the session should be cached")));
+    }
+
+    @Test
+    @DisplayName("A session changed while it was being loaded is not cached")
+    public void EntityCacheEvictor_GetSession_ChangedWhileLoading_IsNotCached() {
+        var stale = Session.builder().id(3L).build();
+
+        var result = entityCacheEvictor.getSession(3L, () -> {
+            // the change commits after the row was read and before it is cached
+            entityCacheEvictor.onSessionChanged(SessionChangedEvent.saved(Session.builder().id(3L).build()));
+            return stale;
+        });
+
+        assertSame(stale, result);
+        assertNull(cacheManager.getCache(SessionService.CACHE).get(3L));
+    }
+
+    @Test
+    @DisplayName("A session that does not exist is not cached")
+    public void EntityCacheEvictor_GetSession_Missing_IsNotCached() {
+        assertNull(entityCacheEvictor.getSession(3L, () -> null));
+        assertNull(cacheManager.getCache(SessionService.CACHE).get(3L));
+    }
+}
@@ -0,0 +1,79 @@
+package com.openclassrooms.starterjwt.unit.services;
+
+import com.openclassrooms.starterjwt.repository.ParticipantCount;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.services.ParticipantCountReconciler;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ParticipantCountReconcilerTests {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private SessionService sessionService;
+
+    private ParticipantCountReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        reconciler = new ParticipantCountReconciler(sessionRepository, sessionService, 2);
+    }
+
+    private static ParticipantCount count(Long sessionId, int recorded, long actual) {
+        return new ParticipantCount() {
+            @Override
+            public Long getSessionId() {
+                return sessionId;
+            }
+
+            @Override
+            public int getRecorded() {
+                return recorded;
+            }
+
+            @Override
+            public long getActual() {
+                return actual;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Test the sessions are checked chunk by chunk and only the drifted ones are recounted")
+    public void ParticipantCountReconciler_Reconcile_RecountsTheDriftedSessions() {
+        when(sessionRepository.findParticipantCounts(0L, 2)).thenReturn(List.of(count(1L, 2, 2), count(2L, 1, 3)));
+        when(sessionRepository.findParticipantCounts(2L, 2)).thenReturn(List.of(count(5L, 4, 0), count(7L, 0, 0)));
+        when(sessionRepository.findParticipantCounts(7L, 2)).thenReturn(List.of(count(8L, 1, 1)));
+        when(sessionService.recountParticipants(any())).thenReturn(1);
+
+        assertEquals(2, reconciler.reconcile());
+
+        verify(sessionService).recountParticipants(List.of(2L));
+        verify(sessionService).recountParticipants(List.of(5L));
+        verifyNoMoreInteractions(sessionService);
+    }
+
+    @Test
+    @DisplayName("Test nothing is recounted when every count matches")
+    public void ParticipantCountReconciler_Reconcile_WithoutDrift_RecountsNothing() {
+        when(sessionRepository.findParticipantCounts(0L, 2)).thenReturn(List.of());
+
+        assertEquals(0, reconciler.reconcile());
+
+        verifyNoInteractions(sessionService);
+    }
+}
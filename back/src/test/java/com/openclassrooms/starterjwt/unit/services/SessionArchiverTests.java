@@ -0,0 +1,58 @@
+package com.openclassrooms.starterjwt.unit.services;
+
+import com.openclassrooms.starterjwt.services.SessionArchiveService;
+import com.openclassrooms.starterjwt.services.SessionArchiver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionArchiverTests {
+
+    @Mock
+    private SessionArchiveService sessionArchiveService;
+
+    private SessionArchiver sessionArchiver;
+
+    @BeforeEach
+    void setUp() {
+        sessionArchiver = new SessionArchiver(sessionArchiveService, 30, 100);
+    }
+
+    @Test
+    @DisplayName("Test the sessions are archived by batches until a batch comes out short")
+    public void SessionArchiver_ArchiveBefore_ArchivesByBatches() {
+        var cutoff = new Date(1000);
+        when(sessionArchiveService.archiveBefore(cutoff, 100)).thenReturn(100, 100, 42);
+
+        assertEquals(242, sessionArchiver.archiveBefore(cutoff));
+
+        verify(sessionArchiveService, times(3)).archiveBefore(cutoff, 100);
+    }
+
+    @Test
+    @DisplayName("Test the scheduled run archives the sessions older than the horizon")
+    public void SessionArchiver_Archive_UsesTheHorizon() {
+        when(sessionArchiveService.archiveBefore(any(), eq(100))).thenReturn(0);
+
+        assertEquals(0, sessionArchiver.archive());
+
+        ArgumentCaptor<Date> cutoff = ArgumentCaptor.forClass(Date.class);
+        verify(sessionArchiveService).archiveBefore(cutoff.capture(), eq(100));
+        var expected = Instant.now().minus(Duration.ofDays(30));
+        assertTrue(Duration.between(cutoff.getValue().toInstant(), expected).abs().toSeconds() < 60);
+    }
+}
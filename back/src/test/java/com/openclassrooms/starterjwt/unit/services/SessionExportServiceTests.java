@@ -0,0 +1,76 @@
+package com.openclassrooms.starterjwt.unit.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.services.SessionExportService;
+import com.openclassrooms.starterjwt.services.SessionService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static com.openclassrooms.starterjwt.repository.SessionRepository.STREAM_FETCH_SIZE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionExportServiceTests {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private SessionExportService sessionExportService;
+
+    @Test
+    @DisplayName("Export sessions hands them over chunk by chunk with their participants")
+    public void SessionExportService_ExportSessions_EmitsChunks() {
+        var closed = new boolean[1];
+        var sessions = LongStream.rangeClosed(1, STREAM_FETCH_SIZE + 1L)
+                .mapToObj(id -> Session.builder().id(id).name("Session" + id).date(new Date()).build())
+                .toList();
+        when(sessionRepository.streamAll()).thenReturn(sessions.stream().onClose(() -> closed[0] = true));
+        when(sessionService.findParticipantIds(anyCollection())).thenReturn(Map.of(1L, List.of(2L)));
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<Long> exportedIds = new ArrayList<>();
+        sessionExportService.exportSessions((chunk, participantIds) -> {
+            chunkSizes.add(chunk.size());
+            chunk.forEach(session -> exportedIds.add(session.getId()));
+            assertEquals(List.of(2L), participantIds.get(1L));
+        });
+
+        assertEquals(List.of(STREAM_FETCH_SIZE, 1), chunkSizes);
+        assertEquals(sessions.stream().map(Session::getId).toList(), exportedIds);
+        verify(sessionService, times(2)).findParticipantIds(anyCollection());
+        verify(entityManager, times(2)).clear();
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    @DisplayName("Export no session does not call the consumer")
+    public void SessionExportService_ExportSessions_WithNoSession_DoesNothing() {
+        when(sessionRepository.streamAll()).thenReturn(Stream.empty());
+
+        sessionExportService.exportSessions((chunk, participantIds) -> fail("no chunk expected"));
+
+        verifyNoInteractions(sessionService, entityManager);
+    }
+}
@@ -0,0 +1,145 @@
+package com.openclassrooms.starterjwt.unit.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.schedule.TeacherSlotIndex;
+import com.openclassrooms.starterjwt.services.SessionChangedEvent;
+import com.openclassrooms.starterjwt.services.SessionImportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionImportServiceTests {
+
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private TeacherRepository teacherRepository;
+
+    @Mock
+    private TeacherSlotIndex teacherSlotIndex;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SessionImportService sessionImportService;
+
+    private Teacher teacher;
+
+    @BeforeEach
+    void setUp() {
+        sessionImportService = new SessionImportService(sessionRepository, teacherRepository, teacherSlotIndex, entityManager,
+                eventPublisher, BATCH_SIZE);
+        teacher = Teacher.builder()
+                .id(1L)
+                .lastName("")
+                .firstName("")
+                .build();
+    }
+
+    @Test
+    @DisplayName("Import sessions persists them chunk by chunk")
+    public void SessionImportService_ImportSessions_PersistsByChunk() {
+        when(teacherRepository.findAllById(Set.of(teacher.getId()))).thenReturn(List.of(teacher));
+
+        var result = sessionImportService.importSessions(newSessions(5).iterator());
+
+        assertEquals(5, result.imported());
+        assertEquals(List.of(), result.conflicts());
+        verify(sessionRepository, times(5)).save(any(Session.class));
+        verify(teacherSlotIndex, times(5)).reserve(any(Session.class));
+        verify(teacherRepository, times(3)).findAllById(anySet());
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+        verify(eventPublisher, times(5)).publishEvent(any(SessionChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Import sessions attaches the persisted teacher and drops ids and participants")
+    public void SessionImportService_ImportSessions_ResolvesTeacher() {
+        when(teacherRepository.findAllById(Set.of(teacher.getId()))).thenReturn(List.of(teacher));
+        var sessions = newSessions(1);
+        var session = sessions.get(0);
+        session.setId(42L);
+        session.setParticipantCount(3);
+
+        sessionImportService.importSessions(sessions.iterator());
+
+        assertSame(teacher, session.getTeacher());
+        assertNull(session.getId());
+        assertEquals(0, session.getParticipantCount());
+        assertTrue(session.getUsers().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Import sessions with an unknown teacher should throw a BadRequestException")
+    public void SessionImportService_ImportSessions_WithUnknownTeacher_ShouldThrowBadRequestException() {
+        when(teacherRepository.findAllById(Set.of(teacher.getId()))).thenReturn(List.of());
+
+        assertThrows(
+                BadRequestException.class,
+                () -> sessionImportService.importSessions(newSessions(1).iterator()),
+                "Expected importSessions() to throw BadRequestException, but it didn't"
+        );
+        verify(sessionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Import sessions skips and reports the sessions whose teacher is booked at that time")
+    public void SessionImportService_ImportSessions_WithBookedTeacher_ReportsConflicts() {
+        when(teacherRepository.findAllById(Set.of(teacher.getId()))).thenReturn(List.of(teacher));
+        var sessions = newSessions(3);
+        when(teacherSlotIndex.isBooked(any(Session.class))).thenAnswer(invocation -> invocation.getArgument(0) == sessions.get(2));
+
+        var result = sessionImportService.importSessions(sessions.iterator());
+
+        assertEquals(2, result.imported());
+        assertEquals(List.of(2), result.conflicts());
+        verify(sessionRepository, times(2)).save(any(Session.class));
+        verify(teacherSlotIndex, never()).reserve(argThat(session -> session == sessions.get(2)));
+        verify(eventPublisher, times(2)).publishEvent(any(SessionChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Import no session does not touch the database")
+    public void SessionImportService_ImportSessions_WithNoSession_ReturnsZero() {
+        var result = sessionImportService.importSessions(Collections.emptyIterator());
+
+        assertEquals(0, result.imported());
+        verifyNoInteractions(sessionRepository, teacherRepository, teacherSlotIndex, entityManager, eventPublisher);
+    }
+
+    private List<Session> newSessions(int count) {
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sessions.add(Session.builder()
+                    .name("Session" + i)
+                    .date(new Date())
+                    .description("Description Session" + i)
+                    .teacher(Teacher.builder().id(teacher.getId()).build())
+                    .build());
+        }
+        return sessions;
+    }
+}
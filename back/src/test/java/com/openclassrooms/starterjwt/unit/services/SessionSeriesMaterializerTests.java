@@ -0,0 +1,52 @@
+package com.openclassrooms.starterjwt.unit.services;
+
+import com.openclassrooms.starterjwt.services.SessionSeriesMaterializer;
+import com.openclassrooms.starterjwt.services.SessionSeriesService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionSeriesMaterializerTests {
+
+    @Mock
+    private SessionSeriesService sessionSeriesService;
+
+    private SessionSeriesMaterializer sessionSeriesMaterializer;
+
+    @BeforeEach
+    void setUp() {
+        sessionSeriesMaterializer = new SessionSeriesMaterializer(sessionSeriesService);
+    }
+
+    @Test
+    @DisplayName("Test every series is extended in its own call and the created sessions are summed")
+    public void SessionSeriesMaterializer_ExtendHorizon_ExtendsEachSeries() {
+        when(sessionSeriesService.findMaterializable()).thenReturn(List.of(1L, 2L));
+        when(sessionSeriesService.extendHorizon(1L)).thenReturn(3);
+        when(sessionSeriesService.extendHorizon(2L)).thenReturn(4);
+
+        assertEquals(7, sessionSeriesMaterializer.extendHorizon());
+    }
+
+    @Test
+    @DisplayName("Test a series that fails is skipped and the next ones are still extended")
+    public void SessionSeriesMaterializer_ExtendHorizonFailure_SkipsTheSeries() {
+        when(sessionSeriesService.findMaterializable()).thenReturn(List.of(1L, 2L));
+        when(sessionSeriesService.extendHorizon(1L)).thenThrow(new CannotAcquireLockException("lock wait timeout"));
+        when(sessionSeriesService.extendHorizon(2L)).thenReturn(4);
+
+        assertEquals(4, sessionSeriesMaterializer.extendHorizon());
+
+        verify(sessionSeriesService).extendHorizon(2L);
+    }
+}
@@ -0,0 +1,187 @@
+package com.openclassrooms.starterjwt.unit.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.SessionSeries;
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.SessionSeriesRepository;
+import com.openclassrooms.starterjwt.services.ImportResult;
+import com.openclassrooms.starterjwt.services.SessionImportService;
+import com.openclassrooms.starterjwt.services.SessionSeriesService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionSeriesServiceTests {
+
+    private static final int HORIZON_DAYS = 28;
+
+    @Mock
+    private SessionSeriesRepository sessionSeriesRepository;
+
+    @Mock
+    private SessionImportService sessionImportService;
+
+    private SessionSeriesService sessionSeriesService;
+
+    private final List<Session> imported = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        sessionSeriesService = new SessionSeriesService(sessionSeriesRepository, sessionImportService, HORIZON_DAYS);
+    }
+
+    private void captureImports() {
+        when(sessionImportService.importSessions(any())).thenAnswer(invocation -> {
+            Iterator<Session> sessions = invocation.getArgument(0);
+            int count = 0;
+            while (sessions.hasNext()) {
+                imported.add(sessions.next());
+                count++;
+            }
+            return new ImportResult(count, List.of());
+        });
+    }
+
+    private static SessionSeries dailySeries(LocalDate start, LocalDate until) {
+        return SessionSeries.builder()
+                .name("Morning flow")
+                .description("Every day")
+                .teacher(Teacher.builder().id(1L).build())
+                .capacity(12)
+                .startDate(start)
+                .startTime(LocalTime.of(7, 30))
+                .zoneId("Europe/Paris")
+                .daysOfWeek(EnumSet.allOf(DayOfWeek.class))
+                .weekInterval(1)
+                .until(until)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Test Create a series creates its sessions up to the horizon only")
+    public void SessionSeriesService_Create_MaterializesUpToTheHorizon() {
+        var today = LocalDate.now(ZoneId.of("Europe/Paris"));
+        var series = dailySeries(today, today.plusYears(1));
+        when(sessionSeriesRepository.save(series)).thenReturn(series);
+        captureImports();
+
+        SessionSeries result = sessionSeriesService.create(series);
+
+        assertEquals(HORIZON_DAYS + 1, imported.size());
+        assertEquals(today.plusDays(HORIZON_DAYS), result.getMaterializedUntil());
+        var first = imported.get(0);
+        assertSame(series, first.getSeries());
+        assertEquals("Morning flow", first.getName());
+        assertEquals(12, first.getCapacity());
+        assertEquals(today.atTime(7, 30).atZone(ZoneId.of("Europe/Paris")).toInstant(), first.getDate().toInstant());
+    }
+
+    @Test
+    @DisplayName("Test Create a series ending before the horizon creates all its sessions")
+    public void SessionSeriesService_CreateShortSeries_MaterializesUntilItsEnd() {
+        var today = LocalDate.now(ZoneId.of("Europe/Paris"));
+        var series = dailySeries(today, today.plusDays(2));
+        when(sessionSeriesRepository.save(series)).thenReturn(series);
+        captureImports();
+
+        SessionSeries result = sessionSeriesService.create(series);
+
+        assertEquals(3, imported.size());
+        assertEquals(today.plusDays(2), result.getMaterializedUntil());
+    }
+
+    @Test
+    @DisplayName("Test Create a series gives its sessions the duration of the series")
+    public void SessionSeriesService_CreateWithDuration_SessionsLastTheDurationOfTheSeries() {
+        var today = LocalDate.now(ZoneId.of("Europe/Paris"));
+        var series = dailySeries(today, today.plusDays(2));
+        series.setDuration(90);
+        when(sessionSeriesRepository.save(series)).thenReturn(series);
+        captureImports();
+
+        sessionSeriesService.create(series);
+
+        assertEquals(3, imported.size());
+        assertTrue(imported.stream().allMatch(session -> session.getDuration() == 90));
+    }
+
+    @Test
+    @DisplayName("Test Create a series with an unknown time zone should throw a BadRequestException")
+    public void SessionSeriesService_CreateWithUnknownZone_ShouldThrowBadRequestException() {
+        var series = dailySeries(LocalDate.now(), LocalDate.now().plusWeeks(4));
+        series.setZoneId("Mars/Olympus_Mons");
+
+        assertThrows(
+                BadRequestException.class,
+                () -> sessionSeriesService.create(series),
+                "Expected create() to throw BadRequestException, but it didn't"
+        );
+        verifyNoInteractions(sessionSeriesRepository, sessionImportService);
+    }
+
+    @Test
+    @DisplayName("Test Create a series lasting too long should throw a BadRequestException")
+    public void SessionSeriesService_CreateTooLong_ShouldThrowBadRequestException() {
+        var series = dailySeries(LocalDate.now(), LocalDate.now().plusYears(6));
+
+        assertThrows(
+                BadRequestException.class,
+                () -> sessionSeriesService.create(series),
+                "Expected create() to throw BadRequestException, but it didn't"
+        );
+    }
+
+    @Test
+    @DisplayName("Test Extend the horizon creates only the sessions after the ones already created")
+    public void SessionSeriesService_ExtendHorizon_MaterializesTheNextDaysOnly() {
+        var today = LocalDate.now(ZoneId.of("Europe/Paris"));
+        var series = dailySeries(today.minusDays(10), today.plusYears(1));
+        series.setMaterializedUntil(today.plusDays(HORIZON_DAYS - 3));
+        when(sessionSeriesRepository.findByIdForUpdate(7L)).thenReturn(Optional.of(series));
+        captureImports();
+
+        int created = sessionSeriesService.extendHorizon(7L);
+
+        assertEquals(3, created);
+        assertEquals(today.plusDays(HORIZON_DAYS - 2),
+                LocalDate.ofInstant(imported.get(0).getDate().toInstant(), ZoneOffset.UTC));
+        assertEquals(today.plusDays(HORIZON_DAYS), series.getMaterializedUntil());
+        verify(sessionSeriesRepository).save(series);
+    }
+
+    @Test
+    @DisplayName("Test Extend the horizon of a series deleted meanwhile creates nothing")
+    public void SessionSeriesService_ExtendHorizonOfDeletedSeries_CreatesNothing() {
+        when(sessionSeriesRepository.findByIdForUpdate(7L)).thenReturn(Optional.empty());
+
+        assertEquals(0, sessionSeriesService.extendHorizon(7L));
+
+        verifyNoInteractions(sessionImportService);
+    }
+
+    @Test
+    @DisplayName("Test List the series to extend up to the horizon of every time zone")
+    public void SessionSeriesService_FindMaterializable_UsesTheLatestHorizon() {
+        when(sessionSeriesRepository.findIdsMaterializableBefore(any())).thenReturn(List.of(7L));
+
+        assertEquals(List.of(7L), sessionSeriesService.findMaterializable());
+
+        verify(sessionSeriesRepository).findIdsMaterializableBefore(LocalDate.now(ZoneOffset.MIN).plusDays(HORIZON_DAYS + 1));
+    }
+}
@@ -0,0 +1,94 @@
+package com.openclassrooms.starterjwt.unit.services;
+
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.schedule.TeacherSlotIndex;
+import com.openclassrooms.starterjwt.search.SessionSearchIndex;
+import com.openclassrooms.starterjwt.services.EntityCacheEvictor;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+@TestPropertySource(properties = {
+        "application.session.retry.max-attempts=3",
+        "application.session.retry.delay=1"
+})
+public class SessionServiceRetryTests {
+
+    @Configuration
+    @EnableRetry
+    @Import(SessionService.class)
+    static class Config {
+    }
+
+    @MockBean
+    private SessionRepository sessionRepository;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private SessionSearchIndex sessionSearchIndex;
+
+    @MockBean
+    private TeacherSlotIndex teacherSlotIndex;
+
+    @MockBean
+    private EntityCacheEvictor entityCacheEvictor;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Test
+    @DisplayName("Test Participate is run again when it loses a race for the session row")
+    public void SessionService_ParticipateLosingLockRace_IsRetried() {
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(sessionRepository.reserveSeats(1L, 1))
+                .thenThrow(new CannotAcquireLockException("deadlock"))
+                .thenReturn(1);
+
+        sessionService.participate(1L, 2L);
+
+        verify(sessionRepository, times(2)).reserveSeats(1L, 1);
+        verify(sessionRepository).addParticipant(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Test Participate gives up after the configured attempts")
+    public void SessionService_ParticipateAlwaysLosingLockRace_ShouldThrowAfterLastAttempt() {
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(sessionRepository.reserveSeats(1L, 1)).thenThrow(new CannotAcquireLockException("deadlock"));
+
+        assertThrows(CannotAcquireLockException.class, () -> sessionService.participate(1L, 2L));
+
+        verify(sessionRepository, times(3)).reserveSeats(1L, 1);
+    }
+
+    @Test
+    @DisplayName("Test No longer participate is not retried when the user was not participating")
+    public void SessionService_NoLongerParticipateFailure_IsNotRetried() {
+        when(sessionRepository.existsById(1L)).thenReturn(true);
+        when(sessionRepository.removeParticipant(1L, 2L)).thenThrow(new DataIntegrityViolationException("fk"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> sessionService.noLongerParticipate(1L, 2L));
+
+        verify(sessionRepository, times(1)).removeParticipant(1L, 2L);
+    }
+}
@@ -1,12 +1,24 @@
 package com.openclassrooms.starterjwt.unit.services;
 
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.exception.PreconditionFailedException;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.pagination.KeysetCursor;
+import com.openclassrooms.starterjwt.pagination.KeysetPage;
+import com.openclassrooms.starterjwt.repository.SessionFilter;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSeats;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.schedule.TeacherSlotIndex;
+import com.openclassrooms.starterjwt.search.SessionSearchIndex;
+import com.openclassrooms.starterjwt.services.EnrollmentStatus;
+import com.openclassrooms.starterjwt.services.EntityCacheEvictor;
+import com.openclassrooms.starterjwt.services.SessionChangedEvent;
 import com.openclassrooms.starterjwt.services.SessionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,7 +26,12 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -31,6 +48,21 @@ public class SessionServiceTests {
     @Mock
     private SessionRepository sessionRepository;
 
+    @Mock
+    private SessionSearchIndex sessionSearchIndex;
+
+    @Mock
+    private TeacherSlotIndex teacherSlotIndex;
+
+    @Spy
+    private EntityCacheEvictor entityCacheEvictor = new EntityCacheEvictor(new ConcurrentMapCacheManager(SessionService.CACHE));
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SessionService sessionService;
 
@@ -77,9 +109,47 @@ public class SessionServiceTests {
         Session result = sessionService.create(mockedSession);
 
         verify(sessionRepository).save(mockedSession);
+        verify(eventPublisher).publishEvent(SessionChangedEvent.saved(mockedSession));
         assertEquals(mockedSession, result);
     }
 
+    @Test
+    @DisplayName("Test Create a session counts its participants")
+    public void SessionService_CreateSession_CountsParticipants() {
+        when(sessionRepository.save(mockedSession)).thenReturn(mockedSession);
+
+        sessionService.create(mockedSession);
+
+        assertEquals(mockedSession.getUsers().size(), mockedSession.getParticipantCount());
+    }
+
+    @Test
+    @DisplayName("Test Create a session with more participants than its capacity should throw a BadRequestException")
+    public void SessionService_CreateSession_OverCapacity_ShouldThrowBadRequestException() {
+        mockedSession.setCapacity(mockedSession.getUsers().size() - 1);
+
+        assertThrows(
+                BadRequestException.class,
+                () -> sessionService.create(mockedSession),
+                "Expected create() to throw BadRequestException, but it didn't"
+        );
+        verify(sessionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Test Create a session when its teacher is already booked should throw a ConflictException")
+    public void SessionService_CreateSession_TeacherBooked_ShouldThrowConflictException() {
+        when(sessionRepository.save(mockedSession)).thenReturn(mockedSession);
+        doThrow(new ConflictException()).when(teacherSlotIndex).reserve(mockedSession);
+
+        assertThrows(
+                ConflictException.class,
+                () -> sessionService.create(mockedSession),
+                "Expected create() to throw ConflictException, but it didn't"
+        );
+        verifyNoInteractions(eventPublisher);
+    }
+
     @Test
     @DisplayName("Test Delete an existing session")
     public void SessionService_DeleteSession_ReturnsSavedSession() {
@@ -88,6 +158,7 @@ public class SessionServiceTests {
         sessionService.delete(mockedSession.getId());
 
         verify(sessionRepository).deleteById(mockedSession.getId());
+        verify(eventPublisher).publishEvent(SessionChangedEvent.deleted(mockedSession.getId()));
     }
 
     @Test
@@ -105,27 +176,279 @@ public class SessionServiceTests {
         assertEquals(allSessions.size(), result.size());
     }
 
+    @Test
+    @DisplayName("Test Find the first page of sessions returns a cursor when more sessions exist")
+    public void SessionService_FindPage_ReturnsFirstPageWithNextCursor() {
+        int pageSize = 2;
+        List<Session> rows = new ArrayList<>();
+        for (long i = 1L; i <= pageSize + 1; i++) {
+            rows.add(Session.builder().id(i).name("Session" + i).date(new Date(i * 1000)).build());
+        }
+
+        when(sessionRepository.findPage(SessionFilter.NONE, null, pageSize + 1)).thenReturn(rows);
+
+        KeysetPage<Session> result = sessionService.findPage(SessionFilter.NONE, null, pageSize);
+
+        assertEquals(pageSize, result.items().size());
+        assertEquals(new KeysetCursor(new Date(2000), 2L), KeysetCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    @DisplayName("Test Find a page of sessions after a cursor")
+    public void SessionService_FindPage_WithCursor_ReturnsLastPage() {
+        var cursor = new KeysetCursor(mockedSession.getDate(), mockedSession.getId());
+        var nextSession = Session.builder().id(2L).name("Session2").date(new Date()).build();
+
+        when(sessionRepository.findPage(SessionFilter.NONE, cursor, SessionService.DEFAULT_PAGE_SIZE + 1))
+                .thenReturn(List.of(nextSession));
+
+        KeysetPage<Session> result = sessionService.findPage(SessionFilter.NONE, cursor.encode(), null);
+
+        assertEquals(List.of(nextSession), result.items());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Test Find a page of sessions caps the requested page size")
+    public void SessionService_FindPage_WithTooLargeSize_IsCapped() {
+        when(sessionRepository.findPage(SessionFilter.NONE, null, SessionService.MAX_PAGE_SIZE + 1)).thenReturn(List.of());
+
+        sessionService.findPage(SessionFilter.NONE, null, SessionService.MAX_PAGE_SIZE * 10);
+
+        verify(sessionRepository).findPage(SessionFilter.NONE, null, SessionService.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    @DisplayName("Test Find a page of sessions passes the date range and teacher to the repository")
+    public void SessionService_FindPage_WithFilter_QueriesFilteredRows() {
+        var filter = new SessionFilter(new Date(1000), new Date(2000), 1L);
+
+        when(sessionRepository.findPage(filter, null, SessionService.DEFAULT_PAGE_SIZE + 1)).thenReturn(List.of(mockedSession));
+
+        KeysetPage<Session> result = sessionService.findPage(filter, null, null);
+
+        assertEquals(List.of(mockedSession), result.items());
+    }
+
+    @Test
+    @DisplayName("Test Find a page of sessions with an empty date range should throw a BadRequestException")
+    public void SessionService_FindPage_WithEmptyRange_ShouldThrowBadRequestException() {
+        var filter = new SessionFilter(new Date(2000), new Date(2000), null);
+
+        assertThrows(
+                BadRequestException.class,
+                () -> sessionService.findPage(filter, null, null),
+                "Expected findPage() to throw BadRequestException, but it didn't"
+        );
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    @DisplayName("Test Find a page of sessions with a malformed cursor should throw a BadRequestException")
+    public void SessionService_FindPage_WithInvalidCursor_ShouldThrowBadRequestException() {
+        assertThrows(
+                BadRequestException.class,
+                () -> sessionService.findPage(SessionFilter.NONE, "not-a-cursor", null),
+                "Expected findPage() to throw BadRequestException, but it didn't"
+        );
+    }
+
+    @Test
+    @DisplayName("Test Find participant ids of several sessions grouped by session")
+    public void SessionService_FindParticipantIds_ReturnsIdsGroupedBySession() {
+        var sessionIds = List.of(1L, 2L, 3L);
+        when(sessionRepository.findParticipants(sessionIds)).thenReturn(List.of(
+                participant(1L, 10L),
+                participant(1L, 11L),
+                participant(2L, 10L)));
+
+        Map<Long, List<Long>> result = sessionService.findParticipantIds(sessionIds);
+
+        assertEquals(List.of(10L, 11L), result.get(1L));
+        assertEquals(List.of(10L), result.get(2L));
+        assertFalse(result.containsKey(3L));
+    }
+
+    @Test
+    @DisplayName("Test Find participant ids without any session does not query the database")
+    public void SessionService_FindParticipantIds_WithNoSession_ReturnsEmptyMap() {
+        Map<Long, List<Long>> result = sessionService.findParticipantIds(List.of());
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(sessionRepository);
+    }
+
     @Test
     @DisplayName("Test Get session by Id")
     public void SessionService_GetById_ReturnsExistingSession() {
         when(sessionRepository.findById(mockedSession.getId())).thenReturn(Optional.of(mockedSession));
 
         Session result = sessionService.getById(mockedSession.getId());
+        Session cached = sessionService.getById(mockedSession.getId());
 
-        verify(sessionRepository).findById(mockedSession.getId());
+        verify(sessionRepository, times(1)).findById(mockedSession.getId());
         assertEquals(mockedSession, result);
+        assertSame(result, cached);
     }
 
     @Test
     @DisplayName("Test Update a Session")
     public void SessionService_UpdateSession_ReturnsUpdatedSession() {
         mockedSession.setId(2L);
+        var stored = Session.builder().id(2L).version(3L).build();
+        when(sessionRepository.findById(2L)).thenReturn(Optional.of(stored));
         when(sessionRepository.save(mockedSession)).thenReturn(mockedSession);
 
-        Session result = sessionService.update(mockedSession.getId(), mockedSession);
+        Session result = sessionService.update(mockedSession.getId(), mockedSession, null);
 
         verify(sessionRepository).save(mockedSession);
+        verify(eventPublisher).publishEvent(SessionChangedEvent.saved(mockedSession));
         assertEquals(mockedSession, result);
+        assertEquals(3L, result.getVersion());
+    }
+
+    @Test
+    @DisplayName("Test Update a Session changed since the expected version should throw a PreconditionFailedException")
+    public void SessionService_UpdateStaleSession_ShouldThrowPreconditionFailedException() {
+        var stored = Session.builder().id(1L).version(4L).build();
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+        assertThrows(
+                PreconditionFailedException.class,
+                () -> sessionService.update(1L, mockedSession, 3L),
+                "Expected update() to throw PreconditionFailedException, but it didn't"
+        );
+        verify(sessionRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Test Update a Session when its teacher is already booked should throw a ConflictException")
+    public void SessionService_UpdateSession_TeacherBooked_ShouldThrowConflictException() {
+        var stored = Session.builder().id(1L).version(3L).build();
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(stored));
+        doThrow(new ConflictException()).when(teacherSlotIndex).reserve(mockedSession);
+
+        assertThrows(
+                ConflictException.class,
+                () -> sessionService.update(1L, mockedSession, null),
+                "Expected update() to throw ConflictException, but it didn't"
+        );
+        verify(sessionRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Test Patch a Session changes only the given fields and keeps its participants")
+    public void SessionService_PatchSession_ChangesGivenFieldsOnly() {
+        var participants = mockedSession.getUsers();
+        mockedSession.setParticipantCount(participants.size());
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockedSession));
+
+        Session result = sessionService.patch(1L, Session.builder().description("Patched").build(), null);
+
+        assertEquals("Patched", result.getDescription());
+        assertEquals("Session1", result.getName());
+        assertSame(participants, result.getUsers());
+        assertEquals(3, result.getParticipantCount());
+        verify(sessionRepository, never()).save(any());
+        verifyNoInteractions(teacherSlotIndex);
+        verify(eventPublisher).publishEvent(SessionChangedEvent.saved(mockedSession));
+    }
+
+    @Test
+    @DisplayName("Test Patch the participants of a Session replaces them and counts them again")
+    public void SessionService_PatchSessionUsers_ReplacesParticipants() {
+        var user = User.builder().id(4L).email("").firstName("").lastName("").admin(false).build();
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockedSession));
+
+        Session result = sessionService.patch(1L, Session.builder().users(new ArrayList<>(List.of(user))).build(), null);
+
+        assertEquals(List.of(user), result.getUsers());
+        assertEquals(1, result.getParticipantCount());
+    }
+
+    @Test
+    @DisplayName("Test Patch the capacity of a Session below its participant count should throw a BadRequestException")
+    public void SessionService_PatchSessionCapacityBelowParticipants_ShouldThrowBadRequestException() {
+        mockedSession.setParticipantCount(3);
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockedSession));
+
+        assertThrows(
+                BadRequestException.class,
+                () -> sessionService.patch(1L, Session.builder().capacity(2).build(), null),
+                "Expected patch() to throw BadRequestException, but it didn't"
+        );
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Test Patch a not defined Session should throw a NotFoundException")
+    public void SessionService_PatchUnknownSession_ShouldThrowNotFoundException() {
+        when(sessionRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(
+                NotFoundException.class,
+                () -> sessionService.patch(1L, Session.builder().name("Patched").build(), null),
+                "Expected patch() to throw NotFoundException, but it didn't"
+        );
+    }
+
+    @Test
+    @DisplayName("Test Patch a Session at the expected version applies the change")
+    public void SessionService_PatchSessionAtExpectedVersion_ChangesIt() {
+        mockedSession.setVersion(5L);
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockedSession));
+
+        Session result = sessionService.patch(1L, Session.builder().name("Patched").build(), 5L);
+
+        assertEquals("Patched", result.getName());
+    }
+
+    @Test
+    @DisplayName("Test Patch a Session changed since the expected version should throw a PreconditionFailedException")
+    public void SessionService_PatchStaleSession_ShouldThrowPreconditionFailedException() {
+        mockedSession.setVersion(6L);
+        when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockedSession));
+
+        assertThrows(
+                PreconditionFailedException.class,
+                () -> sessionService.patch(1L, Session.builder().name("Patched").build(), 5L),
+                "Expected patch() to throw PreconditionFailedException, but it didn't"
+        );
+        assertEquals("Session1", mockedSession.getName());
+    }
+
+    @Test
+    @DisplayName("Test Search sessions returns them in the order ranked by the index")
+    public void SessionService_Search_ReturnsRankedSessions() {
+        var otherSession = Session.builder().id(2L).name("Session2").date(new Date()).build();
+        when(sessionSearchIndex.search("session", SessionService.DEFAULT_PAGE_SIZE)).thenReturn(List.of(2L, 1L));
+        when(sessionRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(mockedSession, otherSession));
+
+        List<Session> result = sessionService.search("session", null);
+
+        assertEquals(List.of(otherSession, mockedSession), result);
+    }
+
+    @Test
+    @DisplayName("Test Search sessions without a match does not query the database")
+    public void SessionService_Search_WithoutMatch_ReturnsEmptyList() {
+        when(sessionSearchIndex.search("pilates", 5)).thenReturn(List.of());
+
+        List<Session> result = sessionService.search("pilates", 5);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(sessionRepository);
+    }
+
+    @Test
+    @DisplayName("Test Search sessions with a blank query should throw a BadRequestException")
+    public void SessionService_Search_WithBlankQuery_ShouldThrowBadRequestException() {
+        assertThrows(
+                BadRequestException.class,
+                () -> sessionService.search(" ", null),
+                "Expected search() to throw BadRequestException, but it didn't"
+        );
     }
 
     @Test
@@ -133,25 +456,16 @@ public class SessionServiceTests {
     public void SessionService_Participate_ShouldAddUserToSession() {
         Long sessionId = 1L;
         Long userId = 10L;
-        var user = User.builder()
-                .id(userId)
-                .email("")
-                .firstName("")
-                .lastName("")
-                .admin(false)
-                .build();
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(mockedSession));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(sessionRepository.reserveSeats(sessionId, 1)).thenReturn(1);
+        when(sessionRepository.addParticipant(sessionId, userId)).thenReturn(1);
 
         sessionService.participate(sessionId, userId);
 
-        verify(sessionRepository).findById(sessionId);
-        verify(userRepository).findById(userId);
-
-        var userInSessions = mockedSession.getUsers();
-        var isUserInSession = userInSessions.stream().anyMatch(x-> Objects.equals(x.getId(), user.getId()));
-        assertTrue(isUserInSession);
+        verify(sessionRepository).reserveSeats(sessionId, 1);
+        verify(sessionRepository).addParticipant(sessionId, userId);
+        verify(sessionRepository, never()).save(any());
     }
 
     @Test
@@ -160,13 +474,16 @@ public class SessionServiceTests {
         Long sessionId = 1L;
         Long userId = 2L;
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(sessionRepository.reserveSeats(sessionId, 1)).thenReturn(0);
+        when(sessionRepository.existsById(sessionId)).thenReturn(false);
 
         assertThrows(
                 NotFoundException.class,
                 () -> sessionService.participate(mockedSession.getId(), userId),
                 "Expected participate() to throw NotFoundException, but it didn't"
         );
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
     }
 
     @Test
@@ -174,13 +491,33 @@ public class SessionServiceTests {
     public void SessionService_ParticipateWithUnknownUser_ShouldThrowNotFoundException() {
         Long userId = 2L;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+        when(userRepository.existsById(userId)).thenReturn(false);
 
         assertThrows(
                 NotFoundException.class,
                 () -> sessionService.participate(mockedSession.getId(), userId),
                 "Expected participate() to throw NotFoundException, but it didn't"
         );
+        verify(sessionRepository, never()).reserveSeats(anyLong(), anyInt());
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Test Participate to a full session should throw a ConflictException")
+    public void SessionService_ParticipateToFullSession_ShouldThrowConflictException() {
+        Long sessionId = 1L;
+        Long userId = 10L;
+
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(sessionRepository.reserveSeats(sessionId, 1)).thenReturn(0);
+        when(sessionRepository.existsById(sessionId)).thenReturn(true);
+
+        assertThrows(
+                ConflictException.class,
+                () -> sessionService.participate(sessionId, userId),
+                "Expected participate() to throw ConflictException, but it didn't"
+        );
+        verify(sessionRepository, never()).addParticipant(anyLong(), anyLong());
     }
 
     @Test
@@ -188,16 +525,11 @@ public class SessionServiceTests {
     public void SessionService_ParticipateAgainWithSameUser_ShouldThrowException() {
         Long sessionId = 1L;
         Long userId = 2L; //already existing in mockedSession (check setUp())
-        var user = User.builder()
-                .id(userId)
-                .email("")
-                .firstName("")
-                .lastName("")
-                .admin(false)
-                .build();
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(mockedSession));
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(userId)).thenReturn(true);
+        when(sessionRepository.reserveSeats(sessionId, 1)).thenReturn(1);
+        when(sessionRepository.addParticipant(sessionId, userId))
+                .thenThrow(new DataIntegrityViolationException("uk_participate_session_user"));
 
         assertThrows(
                 BadRequestException.class,
@@ -212,7 +544,7 @@ public class SessionServiceTests {
         Long sessionId = 1L;
         Long userId = 2L;
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.empty());
+        when(sessionRepository.existsById(sessionId)).thenReturn(false);
 
         assertThrows(
                 NotFoundException.class,
@@ -225,28 +557,16 @@ public class SessionServiceTests {
     @DisplayName("Test NoLongerParticipate to a Session")
     public void SessionService_NoLongerParticipate_ShouldRemoveUserFromSession() {
         Long sessionId = 1L;
-        Long userId = 99L;
-
-        var user = User.builder()
-                .id(userId)
-                .email("")
-                .firstName("")
-                .lastName("")
-                .admin(false)
-                .build();
-
-        mockedSession.getUsers().add(user);
+        Long userId = 2L;
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(mockedSession));
-        when(sessionRepository.save(mockedSession)).thenReturn(mockedSession);
+        when(sessionRepository.existsById(sessionId)).thenReturn(true);
+        when(sessionRepository.removeParticipant(sessionId, userId)).thenReturn(1);
 
         sessionService.noLongerParticipate(sessionId, userId);
 
-        verify(sessionRepository).findById(sessionId);
-
-        var userInSessions = mockedSession.getUsers();
-        var isUserInSession = userInSessions.stream().anyMatch(x-> Objects.equals(x.getId(), user.getId()));
-        assertFalse(isUserInSession);
+        verify(sessionRepository).removeParticipant(sessionId, userId);
+        verify(sessionRepository).releaseSeats(sessionId, 1);
+        verify(sessionRepository, never()).save(any());
     }
 
     @Test
@@ -255,13 +575,133 @@ public class SessionServiceTests {
         Long sessionId = 1L;
         Long userId = 10L; //that user does not exist in mockedSession (check setUp())
 
-        when(sessionRepository.findById(sessionId)).thenReturn(Optional.of(mockedSession));
+        when(sessionRepository.existsById(sessionId)).thenReturn(true);
+        when(sessionRepository.removeParticipant(sessionId, userId)).thenReturn(0);
 
         assertThrows(
                 BadRequestException.class,
                 () -> sessionService.noLongerParticipate(mockedSession.getId(), userId),
                 "Expected NoLongerParticipate() to throw BadRequestException, but it didn't"
         );
+        verify(sessionRepository, never()).releaseSeats(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Test Enroll a group of users reports the outcome of each user")
+    public void SessionService_Enroll_ReturnsReportPerUser() {
+        Long sessionId = 1L;
+        var userIds = List.of(1L, 10L, 11L, 99L);
+
+        when(sessionRepository.existsById(sessionId)).thenReturn(true);
+        when(userRepository.findAllById(new LinkedHashSet<>(userIds))).thenReturn(List.of(
+                User.builder().id(1L).build(),
+                User.builder().id(10L).build(),
+                User.builder().id(11L).build()));
+        when(sessionRepository.findParticipants(List.of(sessionId))).thenReturn(List.of(participant(sessionId, 1L)));
+        when(sessionRepository.findSeatsForUpdate(sessionId)).thenReturn(Optional.of(seats(null, 1)));
+        when(sessionRepository.reserveSeats(sessionId, 2)).thenReturn(1);
+
+        Map<Long, EnrollmentStatus> result = sessionService.enroll(sessionId, userIds);
+
+        verify(sessionRepository).addParticipants(sessionId, List.of(10L, 11L));
+        assertEquals(List.of(1L, 10L, 11L, 99L), new ArrayList<>(result.keySet()));
+        assertEquals(EnrollmentStatus.ALREADY_PARTICIPATING, result.get(1L));
+        assertEquals(EnrollmentStatus.ENROLLED, result.get(10L));
+        assertEquals(EnrollmentStatus.ENROLLED, result.get(11L));
+        assertEquals(EnrollmentStatus.USER_NOT_FOUND, result.get(99L));
+    }
+
+    @Test
+    @DisplayName("Test Enroll more users than the free seats only enrolls the first ones")
+    public void SessionService_Enroll_WithFewSeatsLeft_EnrollsFirstUsers() {
+        Long sessionId = 1L;
+        var userIds = List.of(10L, 11L, 12L);
+
+        when(sessionRepository.existsById(sessionId)).thenReturn(true);
+        when(userRepository.findAllById(new LinkedHashSet<>(userIds))).thenReturn(List.of(
+                User.builder().id(10L).build(),
+                User.builder().id(11L).build(),
+                User.builder().id(12L).build()));
+        when(sessionRepository.findParticipants(List.of(sessionId))).thenReturn(List.of());
+        when(sessionRepository.findSeatsForUpdate(sessionId)).thenReturn(Optional.of(seats(10, 9)));
+        when(sessionRepository.reserveSeats(sessionId, 1)).thenReturn(1);
+
+        Map<Long, EnrollmentStatus> result = sessionService.enroll(sessionId, userIds);
+
+        verify(sessionRepository).addParticipants(sessionId, List.of(10L));
+        assertEquals(EnrollmentStatus.ENROLLED, result.get(10L));
+        assertEquals(EnrollmentStatus.SESSION_FULL, result.get(11L));
+        assertEquals(EnrollmentStatus.SESSION_FULL, result.get(12L));
+    }
+
+    @Test
+    @DisplayName("Test Enroll users to a not defined session should throw a NotFoundException")
+    public void SessionService_EnrollWithUnknownSession_ShouldThrowNotFoundException() {
+        Long sessionId = 1L;
+
+        when(sessionRepository.existsById(sessionId)).thenReturn(false);
+
+        assertThrows(
+                NotFoundException.class,
+                () -> sessionService.enroll(sessionId, List.of(10L)),
+                "Expected enroll() to throw NotFoundException, but it didn't"
+        );
+    }
+
+    @Test
+    @DisplayName("Test Enroll users to a session deleted after it was checked should throw a NotFoundException")
+    public void SessionService_EnrollWithSessionDeletedMeanwhile_ShouldThrowNotFoundException() {
+        Long sessionId = 1L;
+
+        when(sessionRepository.existsById(sessionId)).thenReturn(true);
+        when(userRepository.findAllById(Set.of(10L))).thenReturn(List.of(User.builder().id(10L).build()));
+        when(sessionRepository.findParticipants(List.of(sessionId))).thenReturn(List.of());
+        when(sessionRepository.findSeatsForUpdate(sessionId)).thenReturn(Optional.empty());
+
+        assertThrows(
+                NotFoundException.class,
+                () -> sessionService.enroll(sessionId, List.of(10L)),
+                "Expected enroll() to throw NotFoundException, but it didn't"
+        );
+        verify(sessionRepository, never()).reserveSeats(anyLong(), anyInt());
+        verify(sessionRepository, never()).addParticipants(anyLong(), anyList());
+    }
+
+    @Test
+    @DisplayName("Test Enroll an empty list of users should throw a BadRequestException")
+    public void SessionService_EnrollWithoutUsers_ShouldThrowBadRequestException() {
+        assertThrows(
+                BadRequestException.class,
+                () -> sessionService.enroll(1L, List.of()),
+                "Expected enroll() to throw BadRequestException, but it didn't"
+        );
     }
 
+    private static SessionSeats seats(Integer capacity, int participantCount) {
+        return new SessionSeats() {
+            @Override
+            public Integer getCapacity() {
+                return capacity;
+            }
+
+            @Override
+            public int getParticipantCount() {
+                return participantCount;
+            }
+        };
+    }
+
+    private static SessionParticipant participant(Long sessionId, Long userId) {
+        return new SessionParticipant() {
+            @Override
+            public Long getSessionId() {
+                return sessionId;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+        };
+    }
 }
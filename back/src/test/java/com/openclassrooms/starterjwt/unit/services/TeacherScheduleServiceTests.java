@@ -0,0 +1,89 @@
+package com.openclassrooms.starterjwt.unit.services;
+
+import com.openclassrooms.starterjwt.dto.SessionSummaryDto;
+import com.openclassrooms.starterjwt.dto.WeeklyWorkloadDto;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.services.TeacherScheduleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TeacherScheduleServiceTests {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    private TeacherScheduleService teacherScheduleService;
+
+    @BeforeEach
+    void setUp() {
+        teacherScheduleService = new TeacherScheduleService(sessionRepository);
+    }
+
+    private static SessionSummaryDto session(long id, String date, int participants) {
+        return new SessionSummaryDto(id, "Session " + id, Date.from(Instant.parse(date)), 1L, null, participants);
+    }
+
+    @Test
+    @DisplayName("Test the sessions are read up to the end of the last week and folded into their weeks")
+    public void TeacherScheduleService_GetSchedule_FoldsTheSessionsIntoTheirWeeks() {
+        // a Wednesday
+        var from = Instant.parse("2030-01-09T12:00:00Z");
+        var sessions = List.of(
+                session(1, "2030-01-10T10:00:00Z", 3),
+                session(2, "2030-01-13T18:00:00Z", 2),
+                session(3, "2030-01-21T10:00:00Z", 5));
+        when(sessionRepository.findTeacherSummaries(1L, Date.from(from), Date.from(Instant.parse("2030-01-28T00:00:00Z"))))
+                .thenReturn(sessions);
+
+        var schedule = teacherScheduleService.getSchedule(1L, from, 3, ZoneOffset.UTC);
+
+        assertEquals(sessions, schedule.sessions());
+        assertEquals(List.of(
+                new WeeklyWorkloadDto(LocalDate.parse("2030-01-07"), 2, 5),
+                new WeeklyWorkloadDto(LocalDate.parse("2030-01-14"), 0, 0),
+                new WeeklyWorkloadDto(LocalDate.parse("2030-01-21"), 1, 5)), schedule.weeks());
+        assertEquals(3, schedule.totalSessions());
+        assertEquals(10, schedule.totalAttendees());
+    }
+
+    @Test
+    @DisplayName("Test the weeks start on Monday in the given zone")
+    public void TeacherScheduleService_GetSchedule_UsesTheZone() {
+        // Monday early morning in Paris, still Sunday in UTC
+        var from = Instant.parse("2030-01-13T23:30:00Z");
+        var zone = ZoneId.of("Europe/Paris");
+        var sessions = List.of(session(1, "2030-01-13T23:45:00Z", 4));
+        when(sessionRepository.findTeacherSummaries(1L, Date.from(from), Date.from(Instant.parse("2030-01-20T23:00:00Z"))))
+                .thenReturn(sessions);
+
+        var schedule = teacherScheduleService.getSchedule(1L, from, 1, zone);
+
+        assertEquals(List.of(new WeeklyWorkloadDto(LocalDate.parse("2030-01-14"), 1, 4)), schedule.weeks());
+    }
+
+    @Test
+    @DisplayName("Test a number of weeks out of bounds is rejected")
+    public void TeacherScheduleService_GetSchedule_WithTooManyWeeks_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class,
+                () -> teacherScheduleService.getSchedule(1L, Instant.now(), TeacherScheduleService.MAX_WEEKS + 1, ZoneOffset.UTC));
+        assertThrows(BadRequestException.class,
+                () -> teacherScheduleService.getSchedule(1L, Instant.now(), 0, ZoneOffset.UTC));
+        verifyNoInteractions(sessionRepository);
+    }
+}
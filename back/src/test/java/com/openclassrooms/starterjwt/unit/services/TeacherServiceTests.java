@@ -1,6 +1,7 @@
 package com.openclassrooms.starterjwt.unit.services;
 
 import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.TableVersion;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.services.TeacherService;
 import org.junit.jupiter.api.DisplayName;
@@ -17,6 +18,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -85,4 +88,16 @@ public class TeacherServiceTests {
         verify(teacherRepository).findById(teacherId);
         assertNull(result);
     }
+
+    @Test
+    @DisplayName("Get the version of the teachers")
+    public void TeacherService_GetVersion_ReturnsTableVersion() {
+        TableVersion version = mock(TableVersion.class);
+        when(teacherRepository.findVersion()).thenReturn(version);
+
+        TableVersion result = teacherService.getVersion();
+
+        verify(teacherRepository).findVersion();
+        assertSame(version, result);
+    }
 }
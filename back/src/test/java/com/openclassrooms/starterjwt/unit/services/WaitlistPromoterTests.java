@@ -0,0 +1,91 @@
+package com.openclassrooms.starterjwt.unit.services;
+
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.services.SessionChangedEvent;
+import com.openclassrooms.starterjwt.services.SessionParticipantsChangedEvent;
+import com.openclassrooms.starterjwt.services.WaitlistPromoter;
+import com.openclassrooms.starterjwt.services.WaitlistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WaitlistPromoterTests {
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    private WaitlistPromoter waitlistPromoter;
+
+    @BeforeEach
+    void setUp() {
+        waitlistPromoter = new WaitlistPromoter(waitlistService, waitlistRepository, 2);
+    }
+
+    @Test
+    @DisplayName("Test a burst of cancellations of the same session is promoted once")
+    @SuppressWarnings("unchecked")
+    public void WaitlistPromoter_BurstOfCancellations_IsPromotedOnce() {
+        for (int i = 0; i < 50; i++) {
+            waitlistPromoter.onSessionParticipantsChanged(new SessionParticipantsChangedEvent(1L));
+        }
+        when(waitlistService.promote(any())).thenReturn(3);
+
+        assertEquals(3, waitlistPromoter.promotePending());
+        assertEquals(0, waitlistPromoter.promotePending());
+
+        ArgumentCaptor<Collection<Long>> sessionIds = ArgumentCaptor.forClass(Collection.class);
+        verify(waitlistService).promote(sessionIds.capture());
+        assertEquals(List.of(1L), List.copyOf(sessionIds.getValue()));
+    }
+
+    @Test
+    @DisplayName("Test the marked sessions are promoted by batches")
+    @SuppressWarnings("unchecked")
+    public void WaitlistPromoter_ManySessions_ArePromotedByBatches() {
+        waitlistPromoter.onSessionParticipantsChanged(new SessionParticipantsChangedEvent(1L));
+        waitlistPromoter.onSessionChanged(SessionChangedEvent.deleted(2L));
+        waitlistPromoter.onSessionParticipantsChanged(new SessionParticipantsChangedEvent(3L));
+        waitlistPromoter.onSessionParticipantsChanged(new SessionParticipantsChangedEvent(4L));
+
+        waitlistPromoter.promotePending();
+        waitlistPromoter.promotePending();
+
+        ArgumentCaptor<Collection<Long>> sessionIds = ArgumentCaptor.forClass(Collection.class);
+        verify(waitlistService, times(2)).promote(sessionIds.capture());
+        assertEquals(2, sessionIds.getAllValues().get(0).size());
+        assertEquals(Set.of(1L, 3L, 4L), sessionIds.getAllValues().stream()
+                .flatMap(Collection::stream)
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    @DisplayName("Test the sessions of a failed promotion are promoted again on the next run")
+    public void WaitlistPromoter_FailedPromotion_IsRetriedOnNextRun() {
+        when(waitlistRepository.findSessionIds()).thenReturn(List.of(1L));
+        waitlistPromoter.schedulePendingWaitlists();
+        when(waitlistService.promote(any()))
+                .thenThrow(new CannotAcquireLockException("deadlock"))
+                .thenReturn(1);
+
+        assertEquals(0, waitlistPromoter.promotePending());
+        assertEquals(1, waitlistPromoter.promotePending());
+    }
+}
@@ -0,0 +1,197 @@
+package com.openclassrooms.starterjwt.unit.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.SessionParticipant;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.SessionSeats;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.services.SessionParticipantsChangedEvent;
+import com.openclassrooms.starterjwt.services.WaitlistChangedEvent;
+import com.openclassrooms.starterjwt.services.WaitlistService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WaitlistServiceTests {
+
+    private static final Limit HEAD = Limit.of(WaitlistService.MAX_PROMOTIONS_PER_SESSION);
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private WaitlistService waitlistService;
+
+    private static SessionSeats seats(Integer capacity, int participantCount) {
+        return new SessionSeats() {
+            @Override
+            public Integer getCapacity() {
+                return capacity;
+            }
+
+            @Override
+            public int getParticipantCount() {
+                return participantCount;
+            }
+        };
+    }
+
+    private static SessionParticipant participant(Long sessionId, Long userId) {
+        return new SessionParticipant() {
+            @Override
+            public Long getSessionId() {
+                return sessionId;
+            }
+
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+        };
+    }
+
+    private static List<User> users(Long... ids) {
+        return Arrays.stream(ids).map(id -> User.builder().id(id).build()).toList();
+    }
+
+    @Test
+    @DisplayName("Test Join the waitlist of a session queues the user")
+    public void WaitlistService_Join_SavesEntry() {
+        when(sessionRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(sessionRepository.findParticipants(List.of(1L))).thenReturn(List.of());
+
+        waitlistService.join(1L, 2L);
+
+        verify(waitlistRepository).saveAndFlush(WaitlistEntry.builder().sessionId(1L).userId(2L).build());
+        verify(eventPublisher).publishEvent(new WaitlistChangedEvent(1L));
+    }
+
+    @Test
+    @DisplayName("Test Join the waitlist of a session the user participates in should throw a BadRequestException")
+    public void WaitlistService_JoinWhileParticipating_ShouldThrowBadRequestException() {
+        when(sessionRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(sessionRepository.findParticipants(List.of(1L))).thenReturn(List.of(participant(1L, 2L)));
+
+        assertThrows(
+                BadRequestException.class,
+                () -> waitlistService.join(1L, 2L),
+                "Expected join() to throw BadRequestException, but it didn't"
+        );
+        verify(waitlistRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("Test Join a waitlist twice should throw a BadRequestException")
+    public void WaitlistService_JoinTwice_ShouldThrowBadRequestException() {
+        when(sessionRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.existsById(2L)).thenReturn(true);
+        when(sessionRepository.findParticipants(List.of(1L))).thenReturn(List.of());
+        when(waitlistRepository.saveAndFlush(any())).thenThrow(DataIntegrityViolationException.class);
+
+        assertThrows(
+                BadRequestException.class,
+                () -> waitlistService.join(1L, 2L),
+                "Expected join() to throw BadRequestException, but it didn't"
+        );
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Test Leave a waitlist the user is not on should throw a NotFoundException")
+    public void WaitlistService_LeaveWithoutEntry_ShouldThrowNotFoundException() {
+        when(waitlistRepository.deleteUsers(1L, List.of(2L))).thenReturn(0);
+
+        assertThrows(
+                NotFoundException.class,
+                () -> waitlistService.leave(1L, 2L),
+                "Expected leave() to throw NotFoundException, but it didn't"
+        );
+    }
+
+    @Test
+    @DisplayName("Test Promote gives the free seats to the first users of the waitlist in one batch")
+    public void WaitlistService_Promote_GivesFreeSeatsToTheHeadOfTheLine() {
+        when(waitlistRepository.findUserIds(1L, HEAD)).thenReturn(List.of(10L, 11L, 12L));
+        when(sessionRepository.findSeatsForUpdate(1L)).thenReturn(Optional.of(seats(5, 3)));
+        when(sessionRepository.findParticipants(List.of(1L))).thenReturn(List.of());
+        when(userRepository.findAllById(List.of(10L, 11L))).thenReturn(users(10L, 11L));
+        when(sessionRepository.reserveSeats(1L, 2)).thenReturn(1);
+
+        int promoted = waitlistService.promote(List.of(1L));
+
+        assertEquals(2, promoted);
+        verify(waitlistRepository).deleteUsers(1L, List.of(10L, 11L));
+        verify(sessionRepository).addParticipants(1L, List.of(10L, 11L));
+        verify(eventPublisher).publishEvent(new SessionParticipantsChangedEvent(1L));
+    }
+
+    @Test
+    @DisplayName("Test Promote drops from the waitlist a user who participates already without taking a seat")
+    public void WaitlistService_PromoteParticipatingUser_DoesNotTakeASeat() {
+        when(waitlistRepository.findUserIds(1L, HEAD)).thenReturn(List.of(10L, 11L));
+        when(sessionRepository.findSeatsForUpdate(1L)).thenReturn(Optional.of(seats(null, 3)));
+        when(sessionRepository.findParticipants(List.of(1L))).thenReturn(List.of(participant(1L, 10L)));
+        when(userRepository.findAllById(List.of(10L, 11L))).thenReturn(users(10L, 11L));
+        when(sessionRepository.reserveSeats(1L, 1)).thenReturn(1);
+
+        int promoted = waitlistService.promote(List.of(1L));
+
+        assertEquals(1, promoted);
+        verify(waitlistRepository).deleteUsers(1L, List.of(10L, 11L));
+        verify(sessionRepository).addParticipants(1L, List.of(11L));
+    }
+
+    @Test
+    @DisplayName("Test Promote drops the waitlist of a deleted session")
+    public void WaitlistService_PromoteDeletedSession_DropsTheWaitlist() {
+        when(waitlistRepository.findUserIds(1L, HEAD)).thenReturn(List.of(10L));
+        when(sessionRepository.findSeatsForUpdate(1L)).thenReturn(Optional.empty());
+
+        assertEquals(0, waitlistService.promote(List.of(1L)));
+        verify(waitlistRepository).deleteBySessionId(1L);
+        verify(sessionRepository, never()).reserveSeats(anyLong(), anyInt());
+        verify(sessionRepository, never()).addParticipants(anyLong(), anyList());
+    }
+
+    @Test
+    @DisplayName("Test Promote does nothing for a full session")
+    public void WaitlistService_PromoteFullSession_DoesNothing() {
+        when(waitlistRepository.findUserIds(1L, HEAD)).thenReturn(List.of(10L));
+        when(sessionRepository.findSeatsForUpdate(1L)).thenReturn(Optional.of(seats(5, 5)));
+
+        assertEquals(0, waitlistService.promote(List.of(1L)));
+        verify(sessionRepository, never()).reserveSeats(anyLong(), anyInt());
+    }
+}
@@ -0,0 +1,83 @@
+package com.openclassrooms.starterjwt.unit.snapshot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.mapper.SessionMapper;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.pagination.KeysetPage;
+import com.openclassrooms.starterjwt.repository.SessionFilter;
+import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.snapshot.SessionListSnapshot;
+import com.openclassrooms.starterjwt.snapshot.SessionListSnapshotCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionListSnapshotCacheTests {
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private SessionMapper sessionMapper;
+
+    private SessionListSnapshotCache sessionListSnapshotCache;
+
+    @BeforeEach
+    void setUp() {
+        sessionListSnapshotCache = new SessionListSnapshotCache(sessionService, sessionMapper, new ObjectMapper(), 10);
+
+        var session = Session.builder().id(1L).name("Vinyasa").build();
+        lenient().when(sessionService.findPage(SessionFilter.NONE, null, null)).thenReturn(new KeysetPage<>(List.of(session), "next"));
+        lenient().when(sessionService.findParticipantIds(List.of(1L))).thenReturn(Map.of(1L, List.of(2L)));
+        lenient().when(sessionMapper.toDto(anyList(), anyMap()))
+                .thenReturn(List.of(SessionDto.builder().id(1L).name("Vinyasa").users(List.of(2L)).build()));
+    }
+
+    @Test
+    @DisplayName("A page is serialized once then served from the snapshot while the version is unchanged")
+    public void SessionListSnapshotCache_Get_WithSameVersion_ReusesSnapshot() {
+        SessionListSnapshot first = sessionListSnapshotCache.get("\"1-1\"", SessionFilter.NONE, null, null);
+        SessionListSnapshot second = sessionListSnapshotCache.get("\"1-1\"", SessionFilter.NONE, null, null);
+
+        assertSame(first, second);
+        assertEquals("next", first.nextCursor());
+        assertTrue(new String(first.json()).contains("\"name\":\"Vinyasa\""));
+        verify(sessionService, times(1)).findPage(SessionFilter.NONE, null, null);
+    }
+
+    @Test
+    @DisplayName("A page is rebuilt once the version moved on")
+    public void SessionListSnapshotCache_Get_WithNewVersion_RebuildsSnapshot() {
+        sessionListSnapshotCache.get("\"1-1\"", SessionFilter.NONE, null, null);
+        SessionListSnapshot rebuilt = sessionListSnapshotCache.get("\"1-2\"", SessionFilter.NONE, null, null);
+
+        assertEquals("\"1-2\"", rebuilt.etag());
+        verify(sessionService, times(2)).findPage(SessionFilter.NONE, null, null);
+    }
+
+    @Test
+    @DisplayName("The gzipped bytes decode to the json bytes")
+    public void SessionListSnapshotCache_Get_GzippedMatchesJson() throws IOException {
+        SessionListSnapshot snapshot = sessionListSnapshotCache.get("\"1-1\"", SessionFilter.NONE, null, null);
+
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzipped()))) {
+            assertArrayEquals(snapshot.json(), gzip.readAllBytes());
+        }
+    }
+}
@@ -62,11 +62,27 @@ describe('SessionsService', () => {
       expect(sessions.length).toBe(mockSessions.length);
     });
 
-    const req = httpTestingControllerMock.expectOne(service['pathService']);
+    const req = httpTestingControllerMock.expectOne(request => request.url === service['pathService']);
     expect(req.request.method).toBe('GET');
     req.flush(mockSessions);
   });
 
+  it('should retrieve all sessions following the next cursor', () => {
+    const nextSession = { ...mockSession, id: 2 };
+    service.all().subscribe(sessions => {
+      expect(sessions.map(session => session.id)).toEqual([1, 2]);
+    });
+
+    const first = httpTestingControllerMock.expectOne(request =>
+      request.url === service['pathService'] && !request.params.has('cursor'));
+    first.flush([mockSession], { headers: { 'X-Next-Cursor': 'next' } });
+
+    const second = httpTestingControllerMock.expectOne(request =>
+      request.url === service['pathService'] && request.params.get('cursor') === 'next');
+    second.flush([nextSession]);
+    httpTestingControllerMock.verify();
+  });
+
   it('should retrieve session details', () => {
     const sessionId = '1';
     service.detail(sessionId).subscribe(session => {
@@ -1,8 +1,13 @@
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Injectable } from '@angular/core';
-import { Observable } from 'rxjs';
+import { EMPTY, Observable, expand, map, reduce } from 'rxjs';
 import { Session } from '../interfaces/session.interface';
 
+interface SessionPage {
+  sessions: Session[];
+  nextCursor: string | null;
+}
+
 @Injectable({
   providedIn: 'root'
 })
@@ -10,11 +15,17 @@ export class SessionApiService {
 
   private pathService = 'api/session';
 
+  // the largest page the back end serves, the list is fetched page by page following X-Next-Cursor
+  private pageSize = 100;
+
   constructor(private httpClient: HttpClient) {
   }
 
   public all(): Observable<Session[]> {
-    return this.httpClient.get<Session[]>(this.pathService);
+    return this.page().pipe(
+      expand(page => page.nextCursor ? this.page(page.nextCursor) : EMPTY),
+      reduce((sessions: Session[], page) => sessions.concat(page.sessions), [])
+    );
   }
 
   public detail(id: string): Observable<Session> {
@@ -41,4 +52,17 @@ export class SessionApiService {
     return this.httpClient.delete<void>(`${this.pathService}/${id}/participate/${userId}`);
   }
 
+  private page(cursor?: string): Observable<SessionPage> {
+    let params = new HttpParams().set('size', this.pageSize);
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    return this.httpClient.get<Session[]>(this.pathService, { params, observe: 'response' }).pipe(
+      map(response => ({
+        sessions: response.body ?? [],
+        nextCursor: response.headers.get('X-Next-Cursor')
+      }))
+    );
+  }
+
 }
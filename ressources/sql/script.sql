@@ -2,8 +2,9 @@ CREATE TABLE `TEACHERS` (
   `id` INT PRIMARY KEY AUTO_INCREMENT,
   `last_name` VARCHAR(40),
   `first_name` VARCHAR(40),
+  `version` BIGINT NOT NULL DEFAULT 0,
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+  `updated_at` DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)
 );
 
 CREATE TABLE `SESSIONS` (
@@ -12,8 +13,48 @@ CREATE TABLE `SESSIONS` (
   `description` VARCHAR(2000),
   `date` TIMESTAMP,
   `teacher_id` int,
+  `duration` INT,
+  `capacity` INT,
+  `series_id` INT,
+  `participant_count` INT NOT NULL DEFAULT 0,
+  `version` BIGINT NOT NULL DEFAULT 0,
   `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-  `updated_at` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+  `updated_at` DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)
+);
+
+-- SESSIONS ids are allocated by blocks of 50 from this table (Hibernate sequence emulation on MySQL).
+-- Hibernate reads the stored value as the last id of the first block, so it is seeded 50 past the current ids;
+-- on a database whose SESSIONS already has rows, run these two statements alone.
+CREATE TABLE `SESSIONS_SEQ` (
+  `next_val` BIGINT
+);
+INSERT INTO `SESSIONS_SEQ` SELECT COALESCE(MAX(`id`), 0) + 50 FROM `SESSIONS`;
+
+CREATE TABLE `SESSION_SERIES` (
+  `id` INT PRIMARY KEY AUTO_INCREMENT,
+  `name` VARCHAR(50),
+  `description` VARCHAR(2500),
+  `teacher_id` INT,
+  `duration` INT,
+  `capacity` INT,
+  `start_date` DATE NOT NULL,
+  `start_time` TIME NOT NULL,
+  `zone_id` VARCHAR(64) NOT NULL,
+  `week_interval` INT NOT NULL DEFAULT 1,
+  `until_date` DATE NOT NULL,
+  `materialized_until` DATE,
+  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6)
+);
+
+CREATE TABLE `SESSION_SERIES_DAYS` (
+  `series_id` INT NOT NULL,
+  `day_of_week` VARCHAR(9) NOT NULL
+);
+
+CREATE TABLE `SESSION_SERIES_EXCEPTIONS` (
+  `series_id` INT NOT NULL,
+  `exception_date` DATE NOT NULL
 );
 
 CREATE TABLE `USERS` (
@@ -29,12 +70,68 @@ CREATE TABLE `USERS` (
 
 CREATE TABLE `PARTICIPATE` (
   `user_id` INT, 
-  `session_id` INT
+  `session_id` INT,
+  CONSTRAINT `uk_participate_session_user` UNIQUE (`session_id`, `user_id`)
 );
 
+CREATE TABLE `WAITLIST` (
+  `id` INT PRIMARY KEY AUTO_INCREMENT,
+  `session_id` INT NOT NULL,
+  `user_id` INT NOT NULL,
+  `created_at` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT `uk_waitlist_session_user` UNIQUE (`session_id`, `user_id`)
+);
+
+-- Sessions held more than application.session.archive.horizon-days ago, moved here with their participations.
+-- Ids are those the sessions had in SESSIONS; teachers and users are not enforced, archived rows never block a deletion.
+CREATE TABLE `SESSIONS_ARCHIVE` (
+  `id` INT PRIMARY KEY,
+  `name` VARCHAR(50),
+  `description` VARCHAR(2500),
+  `date` TIMESTAMP,
+  `teacher_id` INT,
+  `series_id` INT,
+  `duration` INT,
+  `capacity` INT,
+  `participant_count` INT NOT NULL DEFAULT 0,
+  `created_at` TIMESTAMP NULL,
+  `updated_at` DATETIME(6),
+  `archived_at` DATETIME(6) NOT NULL
+);
+
+CREATE TABLE `PARTICIPATE_ARCHIVE` (
+  `session_id` INT NOT NULL,
+  `user_id` INT NOT NULL
+);
+
+-- Stamped by the primary every application.datasource.replica.heartbeat-interval-ms; how old the stamp read on a
+-- replica is tells how far behind the primary it is.
+CREATE TABLE `REPLICA_HEARTBEAT` (
+  `id` INT PRIMARY KEY,
+  `beat` DATETIME(3) NOT NULL
+);
+
+CREATE INDEX `idx_sessions_date_teacher` ON `SESSIONS` (`date`, `teacher_id`);
+CREATE INDEX `idx_sessions_teacher_date` ON `SESSIONS` (`teacher_id`, `date`);
+CREATE INDEX `idx_sessions_version` ON `SESSIONS` (`version`);
+CREATE INDEX `idx_participate_user_session` ON `PARTICIPATE` (`user_id`, `session_id`);
+CREATE INDEX `idx_waitlist_session` ON `WAITLIST` (`session_id`, `id`);
+CREATE INDEX `idx_sessions_archive_date` ON `SESSIONS_ARCHIVE` (`date`, `id`);
+CREATE INDEX `idx_participate_archive_session` ON `PARTICIPATE_ARCHIVE` (`session_id`, `user_id`);
+
 ALTER TABLE `SESSIONS` ADD FOREIGN KEY (`teacher_id`) REFERENCES `TEACHERS` (`id`);
+ALTER TABLE `SESSIONS` ADD FOREIGN KEY (`series_id`) REFERENCES `SESSION_SERIES` (`id`);
+ALTER TABLE `SESSION_SERIES` ADD FOREIGN KEY (`teacher_id`) REFERENCES `TEACHERS` (`id`);
+ALTER TABLE `SESSION_SERIES_DAYS` ADD FOREIGN KEY (`series_id`) REFERENCES `SESSION_SERIES` (`id`);
+ALTER TABLE `SESSION_SERIES_EXCEPTIONS` ADD FOREIGN KEY (`series_id`) REFERENCES `SESSION_SERIES` (`id`);
+ALTER TABLE `WAITLIST` ADD FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`) ON DELETE CASCADE;
+ALTER TABLE `WAITLIST` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`) ON DELETE CASCADE;
 ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`user_id`) REFERENCES `USERS` (`id`);
 ALTER TABLE `PARTICIPATE` ADD FOREIGN KEY (`session_id`) REFERENCES `SESSIONS` (`id`);
+ALTER TABLE `PARTICIPATE_ARCHIVE` ADD FOREIGN KEY (`session_id`) REFERENCES `SESSIONS_ARCHIVE` (`id`) ON DELETE CASCADE;
+
+INSERT INTO REPLICA_HEARTBEAT (id, beat)
+VALUES (1, CURRENT_TIMESTAMP(3));
 
 INSERT INTO TEACHERS (first_name, last_name)
 VALUES ('Margot', 'DELAHAYE'),